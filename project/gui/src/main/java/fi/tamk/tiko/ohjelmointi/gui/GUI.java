@@ -47,10 +47,9 @@ import javafx.stage.StageStyle;
 import javafx.stage.Stage;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 
 import java.net.URI;
 
@@ -209,13 +208,23 @@ public class GUI extends Application {
                 updateTokenDiscardMenuItem();
 
                 new Thread(() -> {
-                    manager.downloadFile(saveFile);
-                    ObservableList<Item> list = loadFromFile(saveFile, false);
+                    ObservableList<Item> list = FXCollections.observableArrayList();
 
-                    if (list != null) {
-                        tableView.setItems(items = list);
-                        Platform.runLater(() -> showAlert(AlertType.CONFIRMATION, "Import from Dropbox", "List was successfully imported."));
+                    JSONPushParser parser = new JSONPushParser(1, object -> {
+                        list.add(JSONMapper.loadClassMapping(Item.class, object.getAsObject()));
+                    });
+
+                    parser.setRootType(JSONTypes.ARRAY);
+
+                    try {
+                        manager.downloadFile(saveFile, parser);
+                    } catch (RuntimeException e) {
+                        Platform.runLater(() -> showAlert(AlertType.ERROR, "Cannot load file", "Unable to read save data."));
+                        return;
                     }
+
+                    tableView.setItems(items = list);
+                    Platform.runLater(() -> showAlert(AlertType.CONFIRMATION, "Import from Dropbox", "List was successfully imported."));
                 }).start();
             } catch (InterruptedException e) {
                 // User cancelled this action
@@ -574,10 +583,11 @@ public class GUI extends Application {
      * @return Loaded data as {@link ObservableList} or NULL if unsuccessful.
      */
     private ObservableList<Item> loadFromFile(File file, boolean silent) {
-        try (JSONReader json = new JSONReader(new FileReader(file))) {
+        try (JSONReader json = JSONReader.open(file.toPath())) {
             ObservableList<Item> list = FXCollections.observableArrayList();
+            json.setSymbolTable(new JSONSymbolTable());
 
-            for (JSONType object : json.readObject().getAsArray()) {
+            for (JSONType object : json.readObject(ForkJoinPool.commonPool()).getAsArray()) {
                 list.add(JSONMapper.loadClassMapping(Item.class, object.getAsObject()));
             }
 
@@ -595,7 +605,7 @@ public class GUI extends Application {
      * Saves list data to file.
      */
     private void saveToFile(File file, boolean silent) {
-        try (JSONWriter json = new JSONWriter(new FileWriter(file))) {
+        try (JSONWriter json = JSONWriter.open(file.toPath())) {
             JSONArray array = new JSONArray();
 
             for (Item item : items) {
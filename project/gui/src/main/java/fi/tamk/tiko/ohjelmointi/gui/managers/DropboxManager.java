@@ -5,10 +5,18 @@ import static fi.tamk.tiko.ohjelmointi.gui.GUI.*;
 import java.io.InputStream;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.File;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import fi.tamk.tiko.ohjelmointi.json.JSONPushParser;
+
 import com.dropbox.core.DbxWebAuth;
 import com.dropbox.core.DbxAppInfo;
 import com.dropbox.core.DbxAuthFinish;
@@ -64,13 +72,48 @@ public class DropboxManager {
 
     /**
      * Downloads a file from Dropbox application directory.
-     * @param file {@link File} to replace.
+     *
+     * Downloaded chunks are passed to given parser as they arrive, so the
+     * data is parsed while it downloads. Data is written to a temporary file,
+     * which replaces given file only after the parser has accepted all of
+     * it, so invalid data never overwrites an existing file.
+     *
+     * @param file   {@link File} to replace.
+     * @param parser {@link JSONPushParser} receiving downloaded data.
      */
-    public void downloadFile(File file) {
-        try (FileOutputStream output = new FileOutputStream(file)) {
-            client.files().downloadBuilder("/list.json").download(output);
+    public void downloadFile(File file, JSONPushParser parser) {
+        Path temporary = null;
+
+        try {
+            temporary = File.createTempFile("list", ".part", file.getAbsoluteFile().getParentFile()).toPath();
+
+            try (FilterOutputStream output = new FilterOutputStream(new FileOutputStream(temporary.toFile())) {
+                @Override
+                public void write(byte[] data, int offset, int length) throws IOException {
+                    out.write(data, offset, length);
+                    parser.feed(data, offset, length);
+                }
+
+                @Override
+                public void write(int data) throws IOException {
+                    write(new byte[] { (byte) data }, 0, 1);
+                }
+            }) {
+                client.files().downloadBuilder("/list.json").download(output);
+                parser.end();
+            }
+
+            Files.move(temporary, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
         } catch (Exception e) {
             throw new RuntimeException(e.getMessage());
+        } finally {
+            try {
+                if (temporary != null) {
+                    Files.deleteIfExists(temporary);
+                }
+            } catch (IOException e) {
+                // Temporary file is left for the user to remove
+            }
         }
     }
 
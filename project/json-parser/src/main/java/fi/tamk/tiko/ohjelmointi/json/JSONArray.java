@@ -1,21 +1,668 @@
 package fi.tamk.tiko.ohjelmointi.json;
 
-import java.util.ArrayList;
+import java.io.Serializable;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.stream.DoubleStream;
+import java.util.stream.LongStream;
 
 /**
  * Stores JSON Array information.
  *
+ * Arrays holding only numbers or only decimals store them in a primitive
+ * array, other arrays store JSONType elements. Storage is inflated to
+ * elements when a value of another type is added. Only parsed values,
+ * shared immutable numbers and values added with {@link #addNumber} or
+ * {@link #addDecimal} are copied to primitive storage, so other added
+ * JSONType values keep their identity. Through {@link #add} only shared
+ * immutable numbers go to primitive storage, a decimal JSONType is always
+ * stored as an element and inflates a decimal array, so decimal columns
+ * should be built with {@link #addDecimal}. Elements of primitive
+ * arrays are created on access and write changes made with
+ * {@link JSONType#set} back to the array until the array is next modified
+ * through its own methods, after which {@link JSONType#set} throws
+ * {@link ConcurrentModificationException}.
+ *
  * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
  * @version 2018.1101
  * @since   11
  */
-public class JSONArray extends ArrayList<JSONType> {
+public class JSONArray extends AbstractList<JSONType> implements RandomAccess, Cloneable, Serializable, JSONContainer {
 
     /**
      * Stores auto-generated identifier.
      */
     private static final long serialVersionUID = 8948315495137219901L;
 
+    /**
+     * Defines storage of empty array.
+     */
+    private static final int EMPTY = 0;
+
+    /**
+     * Defines storage of JSONType elements.
+     */
+    private static final int ELEMENTS = 1;
+
+    /**
+     * Defines storage of numbers.
+     */
+    private static final int NUMBERS = 2;
+
+    /**
+     * Defines storage of decimals.
+     */
+    private static final int DECIMALS = 3;
+
+    /**
+     * Stores storage type.
+     */
+    private int storage;
+
+    /**
+     * Stores JSONType elements.
+     */
+    private JSONType[] elements;
+
+    /**
+     * Stores numbers.
+     */
+    private long[] numbers;
+
+    /**
+     * Stores decimals.
+     */
+    private double[] decimals;
+
+    /**
+     * Stores amount of elements.
+     */
+    private int size;
+
+    /**
+     * Stores version of storage, changed on every modification.
+     */
+    private transient int version;
+
+    /**
+     * Stores cached hash code, or 0 if hash code is not cached.
+     */
+    private transient int hash;
+
+    /**
+     * Stores whether cached hash code is 0.
+     */
+    private transient boolean hashIsZero;
+
+    /**
+     * Stores containers holding this array.
+     */
+    private transient Object parents;
+
+    /**
+     * Gets storage type suitable for value.
+     *
+     * Mutable values are stored as elements, so changes made to them later
+     * reach the array.
+     *
+     * @param value Stored value.
+     * @return Storage type.
+     */
+    private static int getStorageOf(JSONType value) {
+        if (value != null && value.isImmutable() && value.getType() == JSONTypes.NUMBER) {
+            return NUMBERS;
+        }
+
+        return ELEMENTS;
+    }
+
+    /**
+     * Prepares storage for value, inflating it on type mismatch.
+     * @param value Stored value.
+     * @param extra Amount of added elements.
+     */
+    private void prepare(JSONType value, int extra) {
+        int type = getStorageOf(value);
+
+        if (storage == EMPTY) {
+            storage = type;
+        } else if (storage != type && storage != ELEMENTS) {
+            inflate();
+        }
+
+        grow(size + extra);
+    }
+
+    /**
+     * Converts primitive storage to JSONType elements.
+     */
+    private void inflate() {
+        JSONType[] inflated = new JSONType[Math.max(size, 4)];
+
+        for (int i = 0; i < size; i++) {
+            inflated[i] = storage == NUMBERS ? JSONType.createNumber(numbers[i]) : JSONType.createDecimal(decimals[i]);
+            adopt(inflated[i]);
+        }
+
+        version++;
+        storage = ELEMENTS;
+        elements = inflated;
+        numbers = null;
+        decimals = null;
+    }
+
+    /**
+     * Grows storage to hold given amount of elements.
+     * @param capacity Required capacity.
+     */
+    private void grow(int capacity) {
+        switch (storage) {
+            case NUMBERS:
+                if (numbers == null || capacity > numbers.length) {
+                    numbers = Arrays.copyOf(numbers == null ? new long[0] : numbers, getCapacity(capacity));
+                }
+
+                break;
+
+            case DECIMALS:
+                if (decimals == null || capacity > decimals.length) {
+                    decimals = Arrays.copyOf(decimals == null ? new double[0] : decimals, getCapacity(capacity));
+                }
+
+                break;
+
+            default:
+                if (elements == null || capacity > elements.length) {
+                    elements = Arrays.copyOf(elements == null ? new JSONType[0] : elements, getCapacity(capacity));
+                }
+        }
+    }
+
+    /**
+     * Gets grown capacity.
+     * @param capacity Required capacity.
+     * @return New capacity.
+     */
+    private int getCapacity(int capacity) {
+        return Math.max(capacity, Math.max(size + (size >> 1), 4));
+    }
+
+    /**
+     * Shifts elements starting from given index.
+     * @param index    Start index.
+     * @param distance Shift distance, negative towards start.
+     */
+    private void shift(int index, int distance) {
+        Object array = storage == NUMBERS ? numbers : storage == DECIMALS ? decimals : elements;
+        System.arraycopy(array, index, array, index + distance, size - index);
+    }
+
+    /**
+     * Records structural modification.
+     */
+    private void onModification() {
+        modCount++;
+        version++;
+        onChange();
+    }
+
+    /**
+     * Checks that storage has not changed since an element was created.
+     * @param expected Version of storage when element was created.
+     */
+    private void checkVersion(int expected) {
+        if (version != expected) {
+            throw new ConcurrentModificationException("JSONArray was modified after element was read.");
+        }
+    }
+
+    /**
+     * Invalidates cached hash codes if this array has one.
+     *
+     * Containers of an array with no cached hash code cannot have cached
+     * hash codes depending on it, so unhashed arrays change for free.
+     */
+    private void onChange() {
+        if (hash != 0 || hashIsZero) {
+            hash = 0;
+            hashIsZero = false;
+            JSONContainer.invalidate(parents);
+        }
+    }
+
+    /**
+     * Invalidates cached hash code of this array and its containers.
+     */
+    @Override
+    public void invalidateHash() {
+        onChange();
+    }
+
+    /**
+     * Remembers container holding this array.
+     * @param parent Container holding this array.
+     */
+    void attach(JSONContainer parent) {
+        parents = JSONContainer.addParent(parents, parent);
+    }
+
+    /**
+     * Forgets container no longer holding this array.
+     * @param parent Container this array was removed from.
+     */
+    void detach(JSONContainer parent) {
+        parents = JSONContainer.removeParent(parents, parent);
+    }
+
+    /**
+     * Makes this array container of value.
+     * @param value Stored value.
+     */
+    private void adopt(JSONType value) {
+        if (value != null) {
+            value.attach(this);
+        }
+    }
+
+    /**
+     * Stops being container of removed or replaced value.
+     * @param value Removed value.
+     */
+    private void disown(JSONType value) {
+        if (value != null) {
+            value.detach(this);
+        }
+    }
+
+    /**
+     * Checks element index.
+     * @param index Element index.
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * @see java.util.List#size
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets element at given index.
+     *
+     * Elements of number and decimal arrays are created on every call, so
+     * repeated calls return equal but not identical values, except for
+     * shared small numbers. Numeric arrays are read without allocation with
+     * {@link #getLong}, {@link #getDouble}, {@link #toLongArray},
+     * {@link #longStream} and their decimal counterparts.
+     *
+     * @param index Element index.
+     * @return {@link JSONType}.
+     * @see java.util.List#get
+     */
+    @Override
+    public JSONType get(int index) {
+        checkIndex(index);
+
+        switch (storage) {
+            case NUMBERS:
+                JSONType number = JSONType.createNumber(numbers[index]);
+                return number.isImmutable() ? number : new NumberElement(index, numbers[index]);
+            case DECIMALS:
+                return new DecimalElement(index, decimals[index]);
+        }
+
+        return elements[index];
+    }
+
+    /**
+     * @see java.util.List#set
+     */
+    @Override
+    public JSONType set(int index, JSONType value) {
+        JSONType previous = get(index);
+
+        if (storage != getStorageOf(value) && storage != ELEMENTS) {
+            inflate();
+        }
+
+        switch (storage) {
+            case NUMBERS: numbers[index] = value.getLong(); break;
+            case DECIMALS: decimals[index] = value.getDouble(); break;
+            default:
+                disown(elements[index]);
+                elements[index] = value;
+                adopt(value);
+        }
+
+        version++;
+        onChange();
+
+        return previous;
+    }
+
+    /**
+     * @see java.util.List#add
+     */
+    @Override
+    public void add(int index, JSONType value) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        prepare(value, 1);
+        shift(index, 1);
+        size++;
+        onModification();
+
+        switch (storage) {
+            case NUMBERS: numbers[index] = value.getLong(); break;
+            case DECIMALS: decimals[index] = value.getDouble(); break;
+            default:
+                elements[index] = value;
+                adopt(value);
+        }
+    }
+
+    /**
+     * Appends all values, copying primitive storage in bulk.
+     * @param values Appended values.
+     * @return true if array changed, otherwise false.
+     */
+    @Override
+    public boolean addAll(Collection<? extends JSONType> values) {
+        if (!(values instanceof JSONArray)) {
+            return super.addAll(values);
+        }
+
+        JSONArray array = (JSONArray) values;
+        int count = array.size;
+
+        if (count > 0 && array.storage != ELEMENTS && (storage == EMPTY || storage == array.storage)) {
+            storage = array.storage;
+            grow(size + count);
+
+            if (storage == NUMBERS) {
+                System.arraycopy(array.numbers, 0, numbers, size, count);
+            } else {
+                System.arraycopy(array.decimals, 0, decimals, size, count);
+            }
+
+            size += count;
+            onModification();
+
+            return true;
+        }
+
+        for (int i = 0; i < count; i++) {
+            switch (array.storage) {
+                case NUMBERS: append(JSONType.createNumber(array.numbers[i])); break;
+                case DECIMALS: append(JSONType.createDecimal(array.decimals[i])); break;
+                default: add(array.elements[i]);
+            }
+        }
+
+        return count > 0;
+    }
+
+    /**
+     * @see java.util.List#remove
+     */
+    @Override
+    public JSONType remove(int index) {
+        JSONType previous = get(index);
+
+        if (storage == ELEMENTS) {
+            disown(previous);
+        }
+
+        shift(index + 1, -1);
+
+        if (storage == ELEMENTS) {
+            elements[size - 1] = null;
+        }
+
+        size--;
+        onModification();
+
+        return previous;
+    }
+
+    /**
+     * @see java.util.List#clear
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; storage == ELEMENTS && i < size; i++) {
+            disown(elements[i]);
+        }
+
+        storage = EMPTY;
+        elements = null;
+        numbers = null;
+        decimals = null;
+        size = 0;
+        onModification();
+    }
+
+    /**
+     * Increases capacity to hold at least given amount of elements.
+     * @param capacity Minimum capacity.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > size) {
+            grow(capacity);
+        }
+    }
+
+    /**
+     * Trims capacity to current size.
+     */
+    public void trimToSize() {
+        switch (storage) {
+            case NUMBERS: numbers = Arrays.copyOf(numbers, size); break;
+            case DECIMALS: decimals = Arrays.copyOf(decimals, size); break;
+            case ELEMENTS: elements = Arrays.copyOf(elements, size); break;
+        }
+    }
+
+    /**
+     * Creates shallow copy of this array.
+     * @return Copy of array sharing its JSONType elements.
+     */
+    @Override
+    public Object clone() {
+        try {
+            JSONArray array = (JSONArray) super.clone();
+
+            array.elements = elements != null ? elements.clone() : null;
+            array.numbers = numbers != null ? numbers.clone() : null;
+            array.decimals = decimals != null ? decimals.clone() : null;
+            array.modCount = 0;
+            array.version = 0;
+            array.hash = 0;
+            array.hashIsZero = false;
+            array.parents = null;
+
+            for (int i = 0; storage == ELEMENTS && i < size; i++) {
+                array.adopt(elements[i]);
+            }
+
+            return array;
+        } catch (CloneNotSupportedException e) {
+            throw new InternalError(e);
+        }
+    }
+
+    /**
+     * Gets type of primitive storage.
+     * @return {@link JSONTypes#NUMBER}, {@link JSONTypes#DECIMAL} or null for elements.
+     */
+    JSONTypes getStorageType() {
+        switch (storage) {
+            case NUMBERS: return JSONTypes.NUMBER;
+            case DECIMALS: return JSONTypes.DECIMAL;
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets number element without creating JSONType.
+     * @param index Element index.
+     * @return long.
+     */
+    public long getLong(int index) {
+        checkIndex(index);
+        return storage == NUMBERS ? numbers[index] : get(index).getLong();
+    }
+
+    /**
+     * Gets decimal element without creating JSONType.
+     * @param index Element index.
+     * @return double.
+     */
+    public double getDouble(int index) {
+        checkIndex(index);
+        return storage == DECIMALS ? decimals[index] : get(index).getDouble();
+    }
+
+    /**
+     * Copies number elements to an array.
+     * @return Array of numbers.
+     * @throws ClassCastException Exception is thrown if an element is not a number.
+     */
+    public long[] toLongArray() {
+        if (storage == NUMBERS) {
+            return Arrays.copyOf(numbers, size);
+        }
+
+        long[] result = new long[size];
+
+        for (int i = 0; i < size; i++) {
+            result[i] = get(i).getLong();
+        }
+
+        return result;
+    }
+
+    /**
+     * Copies decimal elements to an array.
+     * @return Array of decimals.
+     * @throws ClassCastException Exception is thrown if an element is not a decimal.
+     */
+    public double[] toDoubleArray() {
+        if (storage == DECIMALS) {
+            return Arrays.copyOf(decimals, size);
+        }
+
+        double[] result = new double[size];
+
+        for (int i = 0; i < size; i++) {
+            result[i] = get(i).getDouble();
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets number elements as a stream.
+     * @return {@link LongStream}.
+     * @throws ClassCastException Exception is thrown if an element is not a number.
+     */
+    public LongStream longStream() {
+        return storage == NUMBERS ? Arrays.stream(numbers, 0, size) : Arrays.stream(toLongArray());
+    }
+
+    /**
+     * Gets decimal elements as a stream.
+     * @return {@link DoubleStream}.
+     * @throws ClassCastException Exception is thrown if an element is not a decimal.
+     */
+    public DoubleStream doubleStream() {
+        return storage == DECIMALS ? Arrays.stream(decimals, 0, size) : Arrays.stream(toDoubleArray());
+    }
+
+    /**
+     * Overrides default implementation.
+     *
+     * Hash code is computed from element hash codes like in
+     * {@link java.util.List#hashCode} and cached until a value inside this
+     * array changes.
+     *
+     * @return Hash code of elements.
+     */
+    @Override
+    public int hashCode() {
+        if (hash != 0 || hashIsZero) {
+            return hash;
+        }
+
+        int result = 1;
+
+        for (int i = 0; i < size; i++) {
+            switch (storage) {
+                case NUMBERS: result = 31 * result + Long.hashCode(numbers[i]); break;
+                case DECIMALS: result = 31 * result + Double.hashCode(decimals[i]); break;
+                default: result = 31 * result + (elements[i] == null ? 0 : elements[i].hashCode());
+            }
+        }
+
+        if (result == 0) {
+            hashIsZero = true;
+        } else {
+            hash = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Overrides default implementation.
+     *
+     * Sizes are compared first, then hash codes if both arrays have already
+     * cached one, then elements. Hash codes are never computed for equality.
+     *
+     * @param object Object to compare.
+     * @return true if object is equal, otherwise false
+     */
+    @Override
+    public boolean equals(Object object) {
+        if (object == this) {
+            return true;
+        } else if (!(object instanceof JSONArray)) {
+            return super.equals(object);
+        }
+
+        JSONArray array = (JSONArray) object;
+
+        if (size != array.size || hash != 0 && array.hash != 0 && hash != array.hash) {
+            return false;
+        } else if (storage == array.storage && storage == NUMBERS) {
+            return Arrays.equals(numbers, 0, size, array.numbers, 0, size);
+        } else if (storage == array.storage && storage == DECIMALS) {
+            return Arrays.equals(decimals, 0, size, array.decimals, 0, size);
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (!Objects.equals(get(i), array.get(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     /**
      * Adds a new array value.
      * @param value JSONArray value.
@@ -45,7 +692,11 @@ public class JSONArray extends ArrayList<JSONType> {
      * @param value Double value.
      */
     public void addDecimal(Double value) {
-        add(JSONType.createDecimal(value));
+        if (value != null && (storage == EMPTY || storage == DECIMALS)) {
+            appendDecimal(value);
+        } else {
+            add(JSONType.createDecimal(value));
+        }
     }
 
     /**
@@ -53,7 +704,53 @@ public class JSONArray extends ArrayList<JSONType> {
      * @param value Long value.
      */
     public void addNumber(Long value) {
-        add(JSONType.createNumber(value));
+        if (value != null && (storage == EMPTY || storage == NUMBERS)) {
+            appendNumber(value);
+        } else {
+            add(JSONType.createNumber(value));
+        }
+    }
+
+    /**
+     * Appends number to primitive storage.
+     * @param value Number value.
+     */
+    private void appendNumber(long value) {
+        storage = NUMBERS;
+        grow(size + 1);
+        numbers[size++] = value;
+        onModification();
+    }
+
+    /**
+     * Appends decimal to primitive storage.
+     * @param value Decimal value.
+     */
+    private void appendDecimal(double value) {
+        storage = DECIMALS;
+        grow(size + 1);
+        decimals[size++] = value;
+        onModification();
+    }
+
+    /**
+     * Appends parsed value, copying numbers and decimals to primitive storage.
+     *
+     * Parsers keep no other reference to the value, so no later change of
+     * it can be lost.
+     *
+     * @param value Parsed value.
+     */
+    void append(JSONType value) {
+        JSONTypes type = value.getType();
+
+        if (type == JSONTypes.NUMBER && (storage == EMPTY || storage == NUMBERS)) {
+            appendNumber(value.getLong());
+        } else if (type == JSONTypes.DECIMAL && (storage == EMPTY || storage == DECIMALS)) {
+            appendDecimal(value.getDouble());
+        } else {
+            add(value);
+        }
     }
 
     /**
@@ -70,4 +767,158 @@ public class JSONArray extends ArrayList<JSONType> {
     public void addNull() {
         add(JSONType.createNull());
     }
+
+    /**
+     * Refers to a number in primitive storage.
+     *
+     * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+     * @version 2018.1101
+     * @since   11
+     */
+    private final class NumberElement extends JSONType.MutableType {
+
+        /**
+         * Stores element index.
+         */
+        private final int index;
+
+        /**
+         * Stores version of storage when element was read.
+         */
+        private final int expected;
+
+        /**
+         * Stores number value.
+         */
+        private long value;
+
+        /**
+         * @see JSONType#getType
+         */
+        @Override
+        public JSONTypes getType() {
+            return JSONTypes.NUMBER;
+        }
+
+        /**
+         * @see JSONType#get
+         */
+        @Override
+        public Object get() {
+            return value;
+        }
+
+        /**
+         * @see JSONType#getLong
+         */
+        @Override
+        public long getLong() {
+            return value;
+        }
+
+        /**
+         * Sets value and writes it back to array.
+         * @see JSONType#set
+         */
+        @Override
+        public void set(Object value) {
+            if (!(value instanceof Long)) {
+                throw createTypeException(value);
+            }
+
+            checkVersion(expected);
+            this.value = (Long) value;
+            numbers[index] = this.value;
+            JSONArray.this.onChange();
+            onChange();
+        }
+
+        /**
+         * Overrides default constructor.
+         * @param index Element index.
+         * @param value Number value.
+         */
+        NumberElement(int index, long value) {
+            this.index = index;
+            this.expected = version;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Refers to a decimal in primitive storage.
+     *
+     * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+     * @version 2018.1101
+     * @since   11
+     */
+    private final class DecimalElement extends JSONType.MutableType {
+
+        /**
+         * Stores element index.
+         */
+        private final int index;
+
+        /**
+         * Stores version of storage when element was read.
+         */
+        private final int expected;
+
+        /**
+         * Stores decimal value.
+         */
+        private double value;
+
+        /**
+         * @see JSONType#getType
+         */
+        @Override
+        public JSONTypes getType() {
+            return JSONTypes.DECIMAL;
+        }
+
+        /**
+         * @see JSONType#get
+         */
+        @Override
+        public Object get() {
+            return value;
+        }
+
+        /**
+         * @see JSONType#getDouble
+         */
+        @Override
+        public double getDouble() {
+            return value;
+        }
+
+        /**
+         * Sets value and writes it back to array.
+         * @see JSONType#set
+         */
+        @Override
+        public void set(Object value) {
+            if (!(value instanceof Double)) {
+                throw createTypeException(value);
+            }
+
+            checkVersion(expected);
+            this.value = (Double) value;
+            decimals[index] = this.value;
+            JSONArray.this.onChange();
+            onChange();
+        }
+
+        /**
+         * Overrides default constructor.
+         * @param index Element index.
+         * @param value Decimal value.
+         */
+        DecimalElement(int index, double value) {
+            this.index = index;
+            this.expected = version;
+            this.value = value;
+        }
+    }
 }
\ No newline at end of file
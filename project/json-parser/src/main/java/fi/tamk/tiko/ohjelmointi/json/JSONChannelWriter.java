@@ -0,0 +1,177 @@
+package fi.tamk.tiko.ohjelmointi.json;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes characters to a byte channel as UTF-8.
+ *
+ * Characters are encoded straight into a pooled direct buffer, which is
+ * written to the channel whenever it fills. Output is UTF-8 regardless of
+ * platform charset and unpaired surrogates are written as {@code '?'}.
+ *
+ * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+ * @version 2018.1101
+ * @since   11
+ */
+final class JSONChannelWriter extends Writer {
+
+    /**
+     * Defines size of pooled buffers in bytes.
+     */
+    static final int BUFFER_SIZE = 32768;
+
+    /**
+     * Stores released buffers for reuse.
+     */
+    private static final BlockingQueue<ByteBuffer> BUFFERS = new ArrayBlockingQueue<>(4);
+
+    /**
+     * Stores {@link WritableByteChannel}.
+     */
+    private final WritableByteChannel channel;
+
+    /**
+     * Stores encoded bytes or null after closing.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Stores high surrogate waiting for its pair or zero.
+     */
+    private char surrogate;
+
+    /**
+     * Takes buffer from pool or allocates a new one.
+     * @return Empty direct {@link ByteBuffer}.
+     */
+    private static ByteBuffer acquire() {
+        ByteBuffer buffer = BUFFERS.poll();
+
+        return buffer != null ? buffer.clear() : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    /**
+     * Writes encoded bytes to channel.
+     * @throws IOException Exception is thrown if channel is unaccessible.
+     */
+    private void drain() throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+
+    /**
+     * Ensures writer is open.
+     * @throws IOException Exception is thrown if writer is closed.
+     */
+    private void ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("JSONChannelWriter is closed.");
+        }
+    }
+
+    /**
+     * @see Writer#write(char[], int, int) write
+     */
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+        ensureOpen();
+
+        final int end = offset + length;
+
+        for (int i = offset; i < end; i++) {
+            char character = chars[i];
+
+            if (buffer.remaining() < 4) {
+                drain();
+            }
+
+            if (surrogate != 0) {
+                if (Character.isLowSurrogate(character)) {
+                    int codePoint = Character.toCodePoint(surrogate, character);
+                    surrogate = 0;
+
+                    buffer.put((byte) (0xF0 | codePoint >> 18));
+                    buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                    buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                    buffer.put((byte) (0x80 | codePoint & 0x3F));
+                    continue;
+                }
+
+                buffer.put((byte) '?');
+                surrogate = 0;
+            }
+
+            if (character < 0x80) {
+                buffer.put((byte) character);
+            } else if (character < 0x800) {
+                buffer.put((byte) (0xC0 | character >> 6));
+                buffer.put((byte) (0x80 | character & 0x3F));
+            } else if (Character.isHighSurrogate(character)) {
+                surrogate = character;
+            } else if (Character.isLowSurrogate(character)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | character >> 12));
+                buffer.put((byte) (0x80 | character >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | character & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * @see Writer#flush flush
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        drain();
+    }
+
+    /**
+     * Overrides default constructor.
+     * @param channel {@link WritableByteChannel} object.
+     */
+    JSONChannelWriter(WritableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = acquire();
+    }
+
+    /**
+     * Writes pending bytes, releases buffer to pool and closes channel.
+     * @see Writer#close close
+     */
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+
+        try {
+            if (surrogate != 0) {
+                if (!buffer.hasRemaining()) {
+                    drain();
+                }
+
+                buffer.put((byte) '?');
+                surrogate = 0;
+            }
+
+            drain();
+        } finally {
+            BUFFERS.offer(buffer);
+            buffer = null;
+            channel.close();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,150 @@
+package fi.tamk.tiko.ohjelmointi.json;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Holds JSON values and caches hash code computed from them.
+ *
+ * Mutable values remember containers they are stored in, so a change
+ * invalidates cached hash codes only on paths from the changed value up to
+ * its roots. A container is remembered once per stored occurrence and
+ * forgotten when the occurrence is removed or replaced. Parents are stored
+ * as null, a single container or {@link Parents}, keeping values with one
+ * container small.
+ *
+ * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+ * @version 2018.1101
+ * @since   11
+ */
+interface JSONContainer {
+
+    /**
+     * Invalidates cached hash code of this container and its parents.
+     */
+    void invalidateHash();
+
+    /**
+     * Adds container to parents.
+     * @param parents Current parents.
+     * @param parent  Added container.
+     * @return New parents.
+     */
+    static Object addParent(Object parents, JSONContainer parent) {
+        if (parents == null) {
+            return parent;
+        }
+
+        Parents list = parents instanceof Parents ? (Parents) parents : new Parents((JSONContainer) parents);
+        list.add(parent);
+
+        return list;
+    }
+
+    /**
+     * Removes one occurrence of container from parents.
+     * @param parents Current parents.
+     * @param parent  Removed container.
+     * @return New parents.
+     */
+    static Object removeParent(Object parents, JSONContainer parent) {
+        if (parents == parent) {
+            return null;
+        } else if (parents instanceof Parents) {
+            return ((Parents) parents).remove(parent);
+        }
+
+        return parents;
+    }
+
+    /**
+     * Invalidates cached hash codes of parents.
+     * @param parents Current parents.
+     */
+    static void invalidate(Object parents) {
+        if (parents instanceof JSONContainer) {
+            ((JSONContainer) parents).invalidateHash();
+        } else if (parents != null) {
+            Parents list = (Parents) parents;
+
+            for (int i = 0; i < list.size; i++) {
+                list.items[i].invalidateHash();
+            }
+        }
+    }
+
+    /**
+     * Performs action for each parent.
+     * @param parents Current parents.
+     * @param action  Action receiving parent.
+     */
+    static void forEach(Object parents, Consumer<JSONContainer> action) {
+        if (parents instanceof JSONContainer) {
+            action.accept((JSONContainer) parents);
+        } else if (parents != null) {
+            Parents list = (Parents) parents;
+
+            for (int i = 0; i < list.size; i++) {
+                action.accept(list.items[i]);
+            }
+        }
+    }
+
+    /**
+     * Stores two or more parents of a value.
+     *
+     * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+     * @version 2018.1101
+     * @since   11
+     */
+    final class Parents {
+
+        /**
+         * Stores parent containers.
+         */
+        private JSONContainer[] items;
+
+        /**
+         * Stores amount of parents.
+         */
+        private int size;
+
+        /**
+         * Adds container, growing storage geometrically.
+         * @param parent Added container.
+         */
+        private void add(JSONContainer parent) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+
+            items[size++] = parent;
+        }
+
+        /**
+         * Removes one occurrence of container.
+         * @param parent Removed container.
+         * @return Remaining parents.
+         */
+        private Object remove(JSONContainer parent) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (items[i] == parent) {
+                    items[i] = items[--size];
+                    items[size] = null;
+                    break;
+                }
+            }
+
+            return size == 1 ? items[0] : this;
+        }
+
+        /**
+         * Overrides default constructor.
+         * @param parent First container.
+         */
+        private Parents(JSONContainer parent) {
+            this.items = new JSONContainer[] { parent, null };
+            this.size = 1;
+        }
+    }
+}
\ No newline at end of file
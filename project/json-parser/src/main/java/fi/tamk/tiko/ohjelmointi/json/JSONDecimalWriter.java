@@ -0,0 +1,484 @@
+package fi.tamk.tiko.ohjelmointi.json;
+
+import java.math.BigInteger;
+
+/**
+ * Writes numbers and decimals as characters into a buffer.
+ *
+ * Decimals are written with the Schubfach algorithm by Raffaello Giulietti:
+ * the result is the shortest decimal which parses back to the same double,
+ * in the format of {@link Double#toString(double)}. Neither writer creates
+ * intermediate objects.
+ *
+ * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+ * @version 2018.1101
+ * @since   11
+ */
+final class JSONDecimalWriter {
+
+    /**
+     * Defines maximum length of a written number.
+     */
+    static final int NUMBER_LENGTH = 20;
+
+    /**
+     * Defines maximum length of a written decimal.
+     */
+    static final int DECIMAL_LENGTH = 24;
+
+    /**
+     * Defines minimum exponent of double.
+     */
+    private static final int Q_MIN = -1074;
+
+    /**
+     * Defines smallest significand of normal double.
+     */
+    private static final long C_MIN = 1L << 52;
+
+    /**
+     * Defines subnormal significands needing an extra digit.
+     */
+    private static final long C_TINY = 3;
+
+    /**
+     * Defines minimum decimal exponent in power table.
+     */
+    private static final int K_MIN = -324;
+
+    /**
+     * Defines maximum decimal exponent in power table.
+     */
+    private static final int K_MAX = 292;
+
+    /**
+     * Defines amount of significant digits extracted.
+     */
+    private static final int H = 17;
+
+    /**
+     * Defines mask of lowest 63 bits.
+     */
+    private static final long MASK_63 = (1L << 63) - 1;
+
+    /**
+     * Defines mask of lowest 28 bits.
+     */
+    private static final int MASK_28 = (1 << 28) - 1;
+
+    /**
+     * Defines powers of ten from 10^0 to 10^17.
+     */
+    private static final long[] POWERS = createPowers();
+
+    /**
+     * Defines 126-bit approximations of powers of ten as pairs of 63-bit halves.
+     */
+    private static final long[] G = createTable();
+
+    /**
+     * Stores output buffer during write.
+     */
+    private char[] buffer;
+
+    /**
+     * Stores index of last written character.
+     */
+    private int index;
+
+    /**
+     * Creates powers of ten.
+     * @return Powers of ten.
+     */
+    private static long[] createPowers() {
+        long[] powers = new long[H + 1];
+        powers[0] = 1;
+
+        for (int i = 1; i < powers.length; i++) {
+            powers[i] = powers[i - 1] * 10;
+        }
+
+        return powers;
+    }
+
+    /**
+     * Creates table of powers of ten.
+     *
+     * For each k the value 10^-k is scaled by a power of two into range
+     * [2^125, 2^126), rounded down and incremented by one.
+     *
+     * @return Higher and lower 63 bits of each scaled power.
+     */
+    private static long[] createTable() {
+        long[] table = new long[2 * (K_MAX - K_MIN + 1)];
+        BigInteger mask = BigInteger.valueOf(MASK_63);
+
+        for (int k = K_MIN; k <= K_MAX; k++) {
+            BigInteger beta;
+
+            if (k <= 0) {
+                BigInteger power = BigInteger.TEN.pow(-k);
+                int shift = 126 - power.bitLength();
+                beta = shift >= 0 ? power.shiftLeft(shift) : power.shiftRight(-shift);
+            } else {
+                BigInteger power = BigInteger.TEN.pow(k);
+                beta = BigInteger.ONE.shiftLeft(125 + power.bitLength()).divide(power);
+            }
+
+            BigInteger g = beta.add(BigInteger.ONE);
+            table[2 * (k - K_MIN)] = g.shiftRight(63).longValue();
+            table[2 * (k - K_MIN) + 1] = g.and(mask).longValue();
+        }
+
+        return table;
+    }
+
+    /**
+     * Writes number.
+     * @param value    Number value.
+     * @param buffer   Output buffer with room for {@link #NUMBER_LENGTH} characters.
+     * @param position Start position.
+     * @return Position after written characters.
+     */
+    static int writeNumber(long value, char[] buffer, int position) {
+        long negative = value < 0 ? value : -value;
+        int length = 1;
+
+        if (value < 0) {
+            buffer[position++] = '-';
+        }
+
+        for (long power = -10; length < 19 && negative <= power; power *= 10) {
+            length++;
+        }
+
+        int end = position + length;
+
+        for (int i = end - 1; i >= position; i--) {
+            long quotient = negative / 10;
+            buffer[i] = (char) ('0' + quotient * 10 - negative);
+            negative = quotient;
+        }
+
+        return end;
+    }
+
+    /**
+     * Writes finite decimal.
+     * @param value    Decimal value.
+     * @param buffer   Output buffer with room for {@link #DECIMAL_LENGTH} characters.
+     * @param position Start position.
+     * @return Position after written characters.
+     */
+    int writeDecimal(double value, char[] buffer, int position) {
+        this.buffer = buffer;
+        this.index = position - 1;
+
+        long bits = Double.doubleToRawLongBits(value);
+        long t = bits & C_MIN - 1;
+        int bq = (int) (bits >>> 52) & 0x7FF;
+
+        if (bits < 0) {
+            append('-');
+        }
+
+        if (bq != 0) {
+            int mq = -Q_MIN + 1 - bq;
+            long c = C_MIN | t;
+
+            // Integers below 2^53 are written as is
+            if (0 < mq & mq < 53 && (c >> mq) << mq == c) {
+                toChars(c >> mq, 0);
+            } else {
+                toDecimal(-mq, c, 0);
+            }
+        } else if (t != 0) {
+            if (t < C_TINY) {
+                toDecimal(Q_MIN, 10 * t, -1);
+            } else {
+                toDecimal(Q_MIN, t, 0);
+            }
+        } else {
+            append('0');
+            append('.');
+            append('0');
+        }
+
+        this.buffer = null;
+        return index + 1;
+    }
+
+    /**
+     * Finds shortest decimal in rounding interval of c 2^q.
+     * @param q  Binary exponent.
+     * @param c  Significand.
+     * @param dk Correction of decimal exponent.
+     */
+    private void toDecimal(int q, long c, int dk) {
+        int out = (int) c & 0x1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+
+        if (c != C_MIN | q == Q_MIN) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+
+        int h = q + flog2pow10(-k) + 2;
+        long g1 = G[2 * (k - K_MIN)];
+        long g0 = G[2 * (k - K_MIN) + 1];
+
+        long vb = rop(g1, g0, cb << h);
+        long vbl = rop(g1, g0, cbl << h);
+        long vbr = rop(g1, g0, cbr << h);
+
+        long s = vb >> 2;
+
+        if (s >= 100) {
+            long sp10 = 10 * Math.multiplyHigh(s, 115_292_150_460_684_698L << 4);
+            long tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+
+            if (upin != wpin) {
+                toChars(upin ? sp10 : tp10, k);
+                return;
+            }
+        }
+
+        long t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+
+        if (uin != win) {
+            toChars(uin ? s : t, k + dk);
+            return;
+        }
+
+        long cmp = vb - (s + t << 1);
+        toChars(cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk);
+    }
+
+    /**
+     * Computes rounded product of 126-bit g and cp scaled by 2^-127.
+     * @param g1 Higher 63 bits of g.
+     * @param g0 Lower 63 bits of g.
+     * @param cp Multiplier.
+     * @return Product rounded to odd.
+     */
+    private static long rop(long g1, long g0, long cp) {
+        long x1 = Math.multiplyHigh(g0, cp);
+        long y0 = g1 * cp;
+        long y1 = Math.multiplyHigh(g1, cp);
+        long z = (y0 >>> 1) + x1;
+        long vbp = y1 + (z >>> 63);
+
+        return vbp | (z & MASK_63) + MASK_63 >>> 63;
+    }
+
+    /**
+     * Computes floor(log10(2^e)).
+     * @param e Exponent.
+     * @return Logarithm.
+     */
+    private static int flog10pow2(int e) {
+        return (int) (e * 661_971_961_083L >> 41);
+    }
+
+    /**
+     * Computes floor(log10(3/4 2^e)).
+     * @param e Exponent.
+     * @return Logarithm.
+     */
+    private static int flog10threeQuartersPow2(int e) {
+        return (int) (e * 661_971_961_083L + -274_743_187_321L >> 41);
+    }
+
+    /**
+     * Computes floor(log2(10^e)).
+     * @param e Exponent.
+     * @return Logarithm.
+     */
+    private static int flog2pow10(int e) {
+        return (int) (e * 913_124_641_741L >> 38);
+    }
+
+    /**
+     * Writes decimal f 10^e.
+     * @param f Significand.
+     * @param e Decimal exponent.
+     */
+    private void toChars(long f, int e) {
+        int length = flog10pow2(64 - Long.numberOfLeadingZeros(f));
+
+        if (f >= POWERS[length]) {
+            length++;
+        }
+
+        // Normalize to 17 digits: f 10^e = 0.f 10^e
+        f *= POWERS[H - length];
+        e += length;
+
+        // Split digits into the first digit h and two groups of 8 digits
+        long hm = Math.multiplyHigh(f, 193_428_131_138_340_668L) >>> 20;
+        int l = (int) (f - 100_000_000L * hm);
+        int h = (int) (hm * 1_441_151_881L >>> 57);
+        int m = (int) (hm - 100_000_000 * h);
+
+        if (0 < e && e <= 7) {
+            appendPlain(h, m, l, e);
+        } else if (-3 < e && e <= 0) {
+            appendFraction(h, m, l, e);
+        } else {
+            appendScientific(h, m, l, e);
+        }
+    }
+
+    /**
+     * Writes decimal without exponent and leading zeroes.
+     * @param h First digit.
+     * @param m Next 8 digits.
+     * @param l Last 8 digits.
+     * @param e Amount of integer digits.
+     */
+    private void appendPlain(int h, int m, int l, int e) {
+        appendDigit(h);
+
+        int y = y(m);
+        int i = 1;
+
+        for (; i < e; i++) {
+            int t = 10 * y;
+            appendDigit(t >>> 28);
+            y = t & MASK_28;
+        }
+
+        append('.');
+
+        for (; i <= 8; i++) {
+            int t = 10 * y;
+            appendDigit(t >>> 28);
+            y = t & MASK_28;
+        }
+
+        appendLowDigits(l);
+    }
+
+    /**
+     * Writes decimal below one without exponent.
+     * @param h First digit.
+     * @param m Next 8 digits.
+     * @param l Last 8 digits.
+     * @param e Negated amount of leading zeroes.
+     */
+    private void appendFraction(int h, int m, int l, int e) {
+        appendDigit(0);
+        append('.');
+
+        for (; e < 0; e++) {
+            appendDigit(0);
+        }
+
+        appendDigit(h);
+        append8Digits(m);
+        appendLowDigits(l);
+    }
+
+    /**
+     * Writes decimal in scientific notation.
+     * @param h First digit.
+     * @param m Next 8 digits.
+     * @param l Last 8 digits.
+     * @param e Exponent plus one.
+     */
+    private void appendScientific(int h, int m, int l, int e) {
+        appendDigit(h);
+        append('.');
+        append8Digits(m);
+        appendLowDigits(l);
+
+        e--;
+        append('E');
+
+        if (e < 0) {
+            append('-');
+            e = -e;
+        }
+
+        if (e >= 100) {
+            int d = e * 1_311 >>> 17;
+            appendDigit(d);
+            e -= 100 * d;
+            appendDigit(e * 103 >>> 10);
+            appendDigit(e - 10 * (e * 103 >>> 10));
+        } else if (e >= 10) {
+            appendDigit(e * 103 >>> 10);
+            appendDigit(e - 10 * (e * 103 >>> 10));
+        } else {
+            appendDigit(e);
+        }
+    }
+
+    /**
+     * Writes last 8 digits and removes trailing zeroes.
+     * @param l Last 8 digits.
+     */
+    private void appendLowDigits(int l) {
+        if (l != 0) {
+            append8Digits(l);
+        }
+
+        while (buffer[index] == '0') {
+            index--;
+        }
+
+        // Keep one digit after the decimal point
+        if (buffer[index] == '.') {
+            index++;
+        }
+    }
+
+    /**
+     * Writes 8 digits from left to right.
+     * @param m Value below 10^8.
+     */
+    private void append8Digits(int m) {
+        int y = y(m);
+
+        for (int i = 0; i < 8; i++) {
+            int t = 10 * y;
+            appendDigit(t >>> 28);
+            y = t & MASK_28;
+        }
+    }
+
+    /**
+     * Scales value for left to right digit extraction.
+     * @param a Value below 10^8.
+     * @return floor((a + 1) 2^28 / 10^8) - 1.
+     */
+    private static int y(int a) {
+        return (int) (Math.multiplyHigh((long) (a + 1) << 28, 193_428_131_138_340_668L) >>> 20) - 1;
+    }
+
+    /**
+     * Appends digit.
+     * @param digit Digit value.
+     */
+    private void appendDigit(int digit) {
+        buffer[++index] = (char) ('0' + digit);
+    }
+
+    /**
+     * Appends character.
+     * @param character Appended character.
+     */
+    private void append(char character) {
+        buffer[++index] = character;
+    }
+}
\ No newline at end of file
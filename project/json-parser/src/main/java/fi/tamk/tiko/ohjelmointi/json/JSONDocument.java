@@ -0,0 +1,409 @@
+package fi.tamk.tiko.ohjelmointi.json;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Stores read-only JSON document as a structural tape.
+ *
+ * Input is validated and indexed in one pass into a compact tape of
+ * offsets. Strings and literals are decoded, and JSONType trees built,
+ * only when values are accessed through {@link JSONNode}. Document is not
+ * thread-safe.
+ *
+ * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+ * @version 2018.1101
+ * @since   11
+ */
+public class JSONDocument {
+
+    /**
+     * Defines size of tape entry.
+     */
+    private static final int ENTRY_SIZE = 2;
+
+    /**
+     * Stores value types in tape order.
+     */
+    private static final JSONTypes[] TYPES = JSONTypes.values();
+
+    /**
+     * Stores input data.
+     */
+    private final JSONSource input;
+
+    /**
+     * Stores tokenizer used for decoding strings.
+     */
+    private final JSONTokenizer tokenizer;
+
+    /**
+     * Stores literal decoder.
+     */
+    private final JSONLiteral literal;
+
+    /**
+     * Stores tape entries.
+     *
+     * First word holds the type in upper half and the amount of children
+     * or the escape flag in lower half. Second word holds the start offset
+     * in upper half and the end offset, or the entry after a container, in
+     * lower half.
+     */
+    private long[] tape;
+
+    /**
+     * Stores amount of tape entries.
+     */
+    private int size;
+
+    /**
+     * Gets root node.
+     * @return {@link JSONNode} or null if document is empty.
+     */
+    public JSONNode getRoot() {
+        return size > 0 ? new JSONNode(this, 0) : null;
+    }
+
+    /**
+     * Gets amount of indexed values including keys.
+     * @return Amount of tape entries.
+     */
+    public int getEntryCount() {
+        return size;
+    }
+
+    /**
+     * Gets type of entry.
+     * @param entry Entry index.
+     * @return {@link JSONTypes}.
+     */
+    JSONTypes getType(int entry) {
+        return TYPES[(int) (tape[entry * ENTRY_SIZE] >>> 32)];
+    }
+
+    /**
+     * Gets amount of container children or escape flag of string.
+     * @param entry Entry index.
+     * @return Amount of children.
+     */
+    int getCount(int entry) {
+        return (int) tape[entry * ENTRY_SIZE];
+    }
+
+    /**
+     * Gets start offset of entry.
+     * @param entry Entry index.
+     * @return Start offset.
+     */
+    private int getStart(int entry) {
+        return (int) (tape[entry * ENTRY_SIZE + 1] >>> 32);
+    }
+
+    /**
+     * Gets end offset of entry.
+     * @param entry Entry index.
+     * @return End offset.
+     */
+    private int getEnd(int entry) {
+        return (int) tape[entry * ENTRY_SIZE + 1];
+    }
+
+    /**
+     * Gets entry following given entry and its children.
+     * @param entry Entry index.
+     * @return Next entry index.
+     */
+    int getNext(int entry) {
+        switch (getType(entry)) {
+            case ARRAY:
+            case OBJECT:
+                return getEnd(entry);
+        }
+
+        return entry + 1;
+    }
+
+    /**
+     * Decodes string entry.
+     * @param entry Entry index.
+     * @return Decoded String.
+     */
+    String decodeString(int entry) {
+        return tokenizer.decodeString(getStart(entry), getEnd(entry), getCount(entry) != 0, 0);
+    }
+
+    /**
+     * Compares string entry against given value without decoding it.
+     * @param entry Entry index.
+     * @param value Compared value.
+     * @return true if contents are equal, otherwise false.
+     */
+    boolean isEqual(int entry, String value) {
+        int start = getStart(entry);
+        int end = getEnd(entry);
+
+        if (getCount(entry) != 0) {
+            return decodeString(entry).equals(value);
+        }
+
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return decodeString(entry).equals(value);
+            }
+        }
+
+        if (end - start != value.length()) {
+            return false;
+        }
+
+        for (int i = start; i < end; i++) {
+            if (input.get(i) != value.charAt(i - start)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Decodes literal entry.
+     * @param entry Entry index.
+     * @return Literal decoder holding the value.
+     */
+    JSONLiteral decodeLiteral(int entry) {
+        literal.decode(input, getStart(entry), getEnd(entry));
+        return literal;
+    }
+
+    /**
+     * Builds JSONType tree of entry.
+     * @param entry Entry index.
+     * @return {@link JSONType}.
+     */
+    JSONType toJSONType(int entry) {
+        JSONType[] containers = new JSONType[16];
+        int[] ends = new int[16];
+        int depth = 0;
+
+        JSONType result = null;
+        String key = null;
+        int end = getNext(entry);
+
+        for (int i = entry; i < end; i++) {
+            JSONTypes type = getType(i);
+            JSONType value;
+
+            if (depth > 0 && key == null && containers[depth - 1].getType() == JSONTypes.OBJECT) {
+                key = decodeString(i);
+                continue;
+            }
+
+            switch (type) {
+                case ARRAY: value = JSONType.createArray(new JSONArray()); break;
+                case OBJECT: value = JSONType.createObject(new JSONObject()); break;
+                case STRING: value = JSONType.createString(decodeString(i)); break;
+                default: value = decodeLiteral(i).toJSONType();
+            }
+
+            if (depth == 0) {
+                result = value;
+            } else if (key != null) {
+                containers[depth - 1].getAsObject().put(key, value);
+                key = null;
+            } else {
+                containers[depth - 1].getAsArray().append(value);
+            }
+
+            if (type == JSONTypes.ARRAY || type == JSONTypes.OBJECT) {
+                if (depth == containers.length) {
+                    containers = Arrays.copyOf(containers, depth * 2);
+                    ends = Arrays.copyOf(ends, depth * 2);
+                }
+
+                containers[depth] = value;
+                ends[depth++] = getEnd(i);
+            }
+
+            while (depth > 0 && ends[depth - 1] == i + 1) {
+                containers[--depth] = null;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Parses JSON document.
+     * @param stream Parseable string.
+     * @return {@link JSONDocument}.
+     */
+    public static JSONDocument parse(String stream) {
+        return new JSONDocument(JSONSource.of(stream));
+    }
+
+    /**
+     * Parses UTF-8 encoded JSON document.
+     * @param stream Parseable UTF-8 encoded data.
+     * @return {@link JSONDocument}.
+     */
+    public static JSONDocument parse(byte[] stream) {
+        return parse(ByteBuffer.wrap(stream));
+    }
+
+    /**
+     * Parses UTF-8 encoded JSON document.
+     *
+     * Data between buffer position and limit is used and must not be
+     * modified while the document is in use.
+     *
+     * @param stream Parseable UTF-8 encoded data.
+     * @return {@link JSONDocument}.
+     */
+    public static JSONDocument parse(ByteBuffer stream) {
+        return new JSONDocument(JSONSource.of(stream));
+    }
+
+    /**
+     * Overrides default constructor.
+     * @param source Parseable source.
+     */
+    private JSONDocument(JSONSource source) {
+        input = source;
+        literal = new JSONLiteral();
+        tokenizer = new JSONTokenizer(source);
+        tape = new long[Math.max(16, source.length() / 32) * ENTRY_SIZE];
+
+        tokenizer.parse(new TapeBuilder());
+    }
+
+    /**
+     * Writes tape entries from parsed values.
+     *
+     * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+     * @version 2018.1101
+     * @since   11
+     */
+    private class TapeBuilder implements JSONTokenizer.Builder {
+
+        /**
+         * Stores entries of open containers.
+         */
+        private int[] containers = new int[16];
+
+        /**
+         * Stores amount of open containers.
+         */
+        private int depth;
+
+        /**
+         * Adds tape entry.
+         * @param type  Value type.
+         * @param count Amount of children or escape flag.
+         * @param start Start offset.
+         * @param end   End offset.
+         */
+        private void add(JSONTypes type, int count, int start, int end) {
+            if (size * ENTRY_SIZE == tape.length) {
+                tape = Arrays.copyOf(tape, tape.length * 2);
+            }
+
+            tape[size * ENTRY_SIZE] = (long) type.ordinal() << 32 | count;
+            tape[size * ENTRY_SIZE + 1] = (long) start << 32 | end & 0xFFFFFFFFL;
+            size++;
+        }
+
+        /**
+         * Adds value to current container.
+         * @param type  Value type.
+         * @param count Amount of children or escape flag.
+         * @param start Start offset.
+         * @param end   End offset.
+         */
+        private void addValue(JSONTypes type, int count, int start, int end) {
+            if (depth > 0) {
+                tape[containers[depth - 1] * ENTRY_SIZE]++;
+            }
+
+            add(type, count, start, end);
+        }
+
+        /**
+         * Opens container.
+         * @param type   Container type.
+         * @param offset Position of opening character.
+         */
+        private void push(JSONTypes type, int offset) {
+            if (depth == containers.length) {
+                containers = Arrays.copyOf(containers, depth * 2);
+            }
+
+            addValue(type, 0, offset, 0);
+            containers[depth++] = size - 1;
+        }
+
+        /**
+         * Closes container.
+         */
+        private void pop() {
+            int entry = containers[--depth];
+            tape[entry * ENTRY_SIZE + 1] = tape[entry * ENTRY_SIZE + 1] & ~0xFFFFFFFFL | size;
+        }
+
+        /**
+         * @see JSONTokenizer.Builder#startArray
+         */
+        @Override
+        public void startArray(int offset) {
+            push(JSONTypes.ARRAY, offset);
+        }
+
+        /**
+         * @see JSONTokenizer.Builder#endArray
+         */
+        @Override
+        public void endArray(int offset) {
+            pop();
+        }
+
+        /**
+         * @see JSONTokenizer.Builder#startObject
+         */
+        @Override
+        public void startObject(int offset) {
+            push(JSONTypes.OBJECT, offset);
+        }
+
+        /**
+         * @see JSONTokenizer.Builder#endObject
+         */
+        @Override
+        public void endObject(int offset) {
+            pop();
+        }
+
+        /**
+         * @see JSONTokenizer.Builder#key
+         */
+        @Override
+        public void key(int start, int end, boolean isEscaped) {
+            add(JSONTypes.STRING, isEscaped ? 1 : 0, start, end);
+        }
+
+        /**
+         * @see JSONTokenizer.Builder#string
+         */
+        @Override
+        public void string(int start, int end, boolean isEscaped) {
+            addValue(JSONTypes.STRING, isEscaped ? 1 : 0, start, end);
+        }
+
+        /**
+         * @see JSONTokenizer.Builder#literal
+         */
+        @Override
+        public void literal(int start, int end, JSONLiteral literal) {
+            addValue(literal.getType(), 0, start, end);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+package fi.tamk.tiko.ohjelmointi.json;
+
+/**
+ * Receives parsing events from {@link JSONTokenizer}.
+ *
+ * Events are pushed in document order without building {@link JSONType}
+ * nodes, so large documents can be counted, validated or imported in
+ * constant memory. Every method does nothing by default, implementations
+ * override only the events they need.
+ *
+ * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+ * @version 2018.1101
+ * @since   11
+ */
+public interface JSONHandler {
+
+    /**
+     * Receives start of object.
+     */
+    default void startObject() {
+    }
+
+    /**
+     * Receives key of next object member.
+     * @param key Key identifier.
+     */
+    default void key(String key) {
+    }
+
+    /**
+     * Receives end of object.
+     */
+    default void endObject() {
+    }
+
+    /**
+     * Receives start of array.
+     */
+    default void startArray() {
+    }
+
+    /**
+     * Receives end of array.
+     */
+    default void endArray() {
+    }
+
+    /**
+     * Receives number value.
+     * @param value Number value.
+     */
+    default void longValue(long value) {
+    }
+
+    /**
+     * Receives decimal value.
+     * @param value Decimal value.
+     */
+    default void doubleValue(double value) {
+    }
+
+    /**
+     * Receives string value.
+     * @param value String value.
+     */
+    default void stringValue(String value) {
+    }
+
+    /**
+     * Receives boolean value.
+     * @param value Boolean value.
+     */
+    default void booleanValue(boolean value) {
+    }
+
+    /**
+     * Receives null value.
+     */
+    default void nullValue() {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,455 @@
+package fi.tamk.tiko.ohjelmointi.json;
+
+import java.math.BigInteger;
+
+/**
+ * Decodes JSON literals in place without intermediate strings.
+ *
+ * Numbers are classified and decoded with a single scan. Integers use exact
+ * overflow detection and decimals are rounded correctly with Clinger's fast
+ * path and the Eisel-Lemire algorithm, falling back to
+ * {@link Double#parseDouble} only for inputs neither can decide.
+ *
+ * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+ * @version 2018.1101
+ * @since   11
+ */
+final class JSONLiteral {
+
+    /**
+     * Defines smallest power of ten handled by Eisel-Lemire.
+     */
+    private static final int MIN_EXPONENT = -342;
+
+    /**
+     * Defines largest power of ten handled by Eisel-Lemire.
+     */
+    private static final int MAX_EXPONENT = 308;
+
+    /**
+     * Defines amount of significant digits stored.
+     */
+    private static final int MAX_DIGITS = 19;
+
+    /**
+     * Stores exactly representable powers of ten.
+     */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Stores 128-bit approximations of powers of five (high, low).
+     */
+    private static final long[] POWERS_OF_FIVE = createPowersOfFive();
+
+    /**
+     * Stores decoded type.
+     */
+    private JSONTypes type;
+
+    /**
+     * Stores decoded number.
+     */
+    private long number;
+
+    /**
+     * Stores decoded decimal.
+     */
+    private double decimal;
+
+    /**
+     * Stores decoded boolean.
+     */
+    private boolean bool;
+
+    /**
+     * Gets decoded type.
+     * @return {@link JSONTypes}.
+     */
+    JSONTypes getType() {
+        return type;
+    }
+
+    /**
+     * Gets decoded number.
+     * @return Number value.
+     */
+    long getNumber() {
+        return number;
+    }
+
+    /**
+     * Gets decoded decimal.
+     * @return Decimal value.
+     */
+    double getDecimal() {
+        return decimal;
+    }
+
+    /**
+     * Gets decoded boolean.
+     * @return Boolean value.
+     */
+    boolean getBoolean() {
+        return bool;
+    }
+
+    /**
+     * Creates JSONType of decoded value.
+     * @return {@link JSONType}.
+     */
+    JSONType toJSONType() {
+        switch (type) {
+            case NUMBER: return JSONType.createNumber(number);
+            case DECIMAL: return JSONType.createDecimal(decimal);
+            case BOOLEAN: return JSONType.createBoolean(bool);
+        }
+
+        return JSONType.createNull();
+    }
+
+    /**
+     * Decodes literal from given range.
+     *
+     * Surrounding control characters are ignored, keywords are case
+     * insensitive and numbers may have a leading plus sign.
+     *
+     * @param input Input data.
+     * @param start Start index (inclusive).
+     * @param end   End index (exclusive).
+     * @return true if literal is valid, otherwise false.
+     */
+    boolean decode(JSONSource input, int start, int end) {
+        while (start < end && input.get(start) <= ' ') {
+            start++;
+        }
+
+        while (end > start && input.get(end - 1) <= ' ') {
+            end--;
+        }
+
+        if (start == end) {
+            return false;
+        }
+
+        switch (input.get(start) | 0x20) {
+            case 't':
+                bool = true;
+                return isKeyword(input, start, end, "true", JSONTypes.BOOLEAN);
+
+            case 'f':
+                bool = false;
+                return isKeyword(input, start, end, "false", JSONTypes.BOOLEAN);
+
+            case 'n':
+                return isKeyword(input, start, end, "null", JSONTypes.NULL);
+        }
+
+        return decodeNumber(input, start, end);
+    }
+
+    /**
+     * Checks for case insensitive keyword.
+     * @param input   Input data.
+     * @param start   Start index (inclusive).
+     * @param end     End index (exclusive).
+     * @param keyword Lower case keyword.
+     * @param result  Type on match.
+     * @return true if keyword matches, otherwise false.
+     */
+    private boolean isKeyword(JSONSource input, int start, int end, String keyword, JSONTypes result) {
+        if (end - start != keyword.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < keyword.length(); i++) {
+            if ((input.get(start + i) | 0x20) != keyword.charAt(i)) {
+                return false;
+            }
+        }
+
+        type = result;
+        return true;
+    }
+
+    /**
+     * Decodes number or decimal.
+     * @param input Input data.
+     * @param start Start index (inclusive).
+     * @param end   End index (exclusive).
+     * @return true if number is valid, otherwise false.
+     */
+    private boolean decodeNumber(JSONSource input, int start, int end) {
+        int position = start;
+        int character = input.get(position);
+        boolean negative = character == '-';
+
+        if (negative || character == '+') {
+            if (++position == end) {
+                return false;
+            }
+
+            character = input.get(position);
+        }
+
+        int integerStart = position;
+
+        if (character == '0') {
+            position++;
+        } else if (character >= '1' && character <= '9') {
+            while (position < end && isDigit(input.get(position))) {
+                position++;
+            }
+        } else {
+            return false;
+        }
+
+        int integerEnd = position;
+        int fractionEnd = position;
+        int exponent = 0;
+
+        if (position < end && input.get(position) == '.') {
+            position++;
+
+            while (position < end && isDigit(input.get(position))) {
+                position++;
+            }
+
+            fractionEnd = position;
+        }
+
+        if (position < end && (input.get(position) | 0x20) == 'e') {
+            boolean negativeExponent = false;
+
+            if (++position < end && (input.get(position) == '+' || input.get(position) == '-')) {
+                negativeExponent = input.get(position++) == '-';
+            }
+
+            if (position == end) {
+                return false;
+            }
+
+            while (position < end && isDigit(input.get(position))) {
+                if (exponent < 100000) {
+                    exponent = exponent * 10 + input.get(position) - '0';
+                }
+
+                position++;
+            }
+
+            exponent = negativeExponent ? -exponent : exponent;
+        }
+
+        if (position != end) {
+            return false;
+        }
+
+        if (fractionEnd == integerEnd && position == integerEnd && decodeInteger(input, integerStart, integerEnd, negative)) {
+            type = JSONTypes.NUMBER;
+            return true;
+        }
+
+        type = JSONTypes.DECIMAL;
+        decimal = decodeDecimal(input, start, end, integerStart, integerEnd, fractionEnd, exponent, negative);
+        return true;
+    }
+
+    /**
+     * Decodes integer with exact overflow detection.
+     * @param input    Input data.
+     * @param start    Start of digits (inclusive).
+     * @param end      End of digits (exclusive).
+     * @param negative Negative value.
+     * @return true if value fits into long, otherwise false.
+     */
+    private boolean decodeInteger(JSONSource input, int start, int end, boolean negative) {
+        final long LIMIT = Long.MIN_VALUE / 10;
+        long value = 0;
+
+        for (int i = start; i < end; i++) {
+            int digit = input.get(i) - '0';
+
+            if (value < LIMIT || value * 10 < Long.MIN_VALUE + digit) {
+                return false;
+            }
+
+            value = value * 10 - digit;
+        }
+
+        if (!negative) {
+            if (value == Long.MIN_VALUE) {
+                return false;
+            }
+
+            value = -value;
+        }
+
+        number = value;
+        return true;
+    }
+
+    /**
+     * Decodes decimal value.
+     * @param input        Input data.
+     * @param start        Start of literal (inclusive).
+     * @param end          End of literal (exclusive).
+     * @param integerStart Start of integer digits.
+     * @param integerEnd   End of integer digits.
+     * @param fractionEnd  End of fraction digits.
+     * @param exponent     Explicit exponent.
+     * @param negative     Negative value.
+     * @return Correctly rounded double.
+     */
+    private static double decodeDecimal(JSONSource input, int start, int end, int integerStart, int integerEnd, int fractionEnd, int exponent, boolean negative) {
+        boolean truncated = false;
+        long significand = 0;
+        int digits = 0;
+
+        for (int i = integerStart; i < fractionEnd; i++) {
+            if (i == integerEnd) {
+                continue;
+            }
+
+            int digit = input.get(i) - '0';
+            boolean isFraction = i > integerEnd;
+
+            if (significand == 0 && digit == 0) {
+                exponent -= isFraction ? 1 : 0;
+            } else if (digits < MAX_DIGITS) {
+                significand = significand * 10 + digit;
+                exponent -= isFraction ? 1 : 0;
+                digits++;
+            } else {
+                exponent += isFraction ? 0 : 1;
+                truncated |= digit != 0;
+            }
+        }
+
+        double value;
+
+        if (truncated) {
+            return Double.parseDouble(input.decode(start, end).trim());
+        } else if (significand == 0) {
+            value = 0.0;
+        } else if (exponent >= -22 && exponent <= 22 && significand >= 0 && significand <= 1L << 53) {
+            value = significand;
+            value = exponent < 0 ? value / POWERS_OF_TEN[-exponent] : value * POWERS_OF_TEN[exponent];
+        } else if (exponent < MIN_EXPONENT) {
+            value = 0.0;
+        } else if (exponent > MAX_EXPONENT) {
+            value = Double.POSITIVE_INFINITY;
+        } else {
+            long bits = computeDecimal(significand, exponent);
+
+            if (bits < 0) {
+                return Double.parseDouble(input.decode(start, end).trim());
+            }
+
+            value = Double.longBitsToDouble(bits);
+        }
+
+        return negative ? -value : value;
+    }
+
+    /**
+     * Computes significand * 10^exponent with Eisel-Lemire algorithm.
+     * @param significand Non-zero decimal significand.
+     * @param exponent    Decimal exponent.
+     * @return Double bits or -1 if result is subnormal.
+     */
+    private static long computeDecimal(long significand, int exponent) {
+        int leadingZeros = Long.numberOfLeadingZeros(significand);
+        significand <<= leadingZeros;
+
+        int index = 2 * (exponent - MIN_EXPONENT);
+        long low = significand * POWERS_OF_FIVE[index];
+        long high = multiplyHigh(significand, POWERS_OF_FIVE[index]);
+
+        if ((high & 0x1FF) == 0x1FF) {
+            long secondHigh = multiplyHigh(significand, POWERS_OF_FIVE[index + 1]);
+            low += secondHigh;
+
+            if (Long.compareUnsigned(secondHigh, low) > 0) {
+                high++;
+            }
+        }
+
+        int upperBit = (int) (high >>> 63);
+        int shift = upperBit + 9;
+        long mantissa = high >>> shift;
+        int power = (((152170 + 65536) * exponent) >> 16) + 63 + upperBit - leadingZeros + 1023;
+
+        if (power <= 0) {
+            return -1;
+        }
+
+        if (Long.compareUnsigned(low, 1) <= 0 && exponent >= -4 && exponent <= 23 && (mantissa & 3) == 1 && mantissa << shift == high) {
+            mantissa &= ~1L;
+        }
+
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+
+        if (mantissa >= 2L << 52) {
+            mantissa = 1L << 52;
+            power++;
+        }
+
+        if (power >= 0x7FF) {
+            return 0x7FFL << 52;
+        }
+
+        return mantissa & ~(1L << 52) | (long) power << 52;
+    }
+
+    /**
+     * Computes high bits of unsigned 128-bit product.
+     * @param x First factor.
+     * @param y Second factor.
+     * @return High 64 bits.
+     */
+    private static long multiplyHigh(long x, long y) {
+        return Math.multiplyHigh(x, y) + (x >> 63 & y) + (y >> 63 & x);
+    }
+
+    /**
+     * Checks if code unit is a digit.
+     * @param character Code unit.
+     * @return true if character is a digit, otherwise false.
+     */
+    private static boolean isDigit(int character) {
+        return character >= '0' && character <= '9';
+    }
+
+    /**
+     * Creates table of truncated 128-bit powers of five.
+     * @return Table of high and low bits.
+     */
+    private static long[] createPowersOfFive() {
+        final BigInteger FIVE = BigInteger.valueOf(5);
+        long[] table = new long[2 * (MAX_EXPONENT - MIN_EXPONENT + 1)];
+
+        for (int q = MIN_EXPONENT; q <= MAX_EXPONENT; q++) {
+            BigInteger power = FIVE.pow(Math.abs(q));
+            BigInteger value;
+
+            if (q < 0) {
+                int bits = power.bitLength();
+                int shift = q >= -27 ? bits + 127 : 2 * bits + 128;
+                value = BigInteger.ONE.shiftLeft(shift).divide(power).add(BigInteger.ONE);
+            } else {
+                value = power.shiftLeft(Math.max(0, 128 - power.bitLength()));
+            }
+
+            value = value.shiftRight(Math.max(0, value.bitLength() - 128));
+
+            int index = 2 * (q - MIN_EXPONENT);
+            table[index] = value.shiftRight(64).longValue();
+            table[index + 1] = value.longValue();
+        }
+
+        return table;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,225 @@
+package fi.tamk.tiko.ohjelmointi.json;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Provides lazy access to value of {@link JSONDocument}.
+ *
+ * Nodes are lightweight views to the document tape, values are decoded on
+ * each access.
+ *
+ * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+ * @version 2018.1101
+ * @since   11
+ */
+public class JSONNode {
+
+    /**
+     * Stores owner document.
+     */
+    private final JSONDocument document;
+
+    /**
+     * Stores tape entry.
+     */
+    private final int entry;
+
+    /**
+     * Gets type enum.
+     * @return {@link JSONTypes} enumeration.
+     */
+    public JSONTypes getType() {
+        return document.getType(entry);
+    }
+
+    /**
+     * Checks that node has given type.
+     * @param type Expected type.
+     * @param name Name of expected Java type.
+     */
+    private void checkType(JSONTypes type, String name) {
+        if (getType() != type) {
+            throw new ClassCastException("Unable to cast as " + name);
+        }
+    }
+
+    /**
+     * Checks that node is an array or an object.
+     */
+    private void checkContainer() {
+        if (getType() != JSONTypes.ARRAY && getType() != JSONTypes.OBJECT) {
+            throw new ClassCastException("Unable to cast as container");
+        }
+    }
+
+    /**
+     * Gets amount of array elements or object members.
+     * @return Amount of children.
+     */
+    public int size() {
+        checkContainer();
+        return document.getCount(entry);
+    }
+
+    /**
+     * Gets array element.
+     * @param index Element index.
+     * @return {@link JSONNode}.
+     */
+    public JSONNode get(int index) {
+        checkType(JSONTypes.ARRAY, "JSONArray");
+
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+
+        int child = entry + 1;
+
+        for (int i = 0; i < index; i++) {
+            child = document.getNext(child);
+        }
+
+        return new JSONNode(document, child);
+    }
+
+    /**
+     * Gets object member.
+     * @param key Member key.
+     * @return {@link JSONNode} or null if key is not found.
+     */
+    public JSONNode get(String key) {
+        checkType(JSONTypes.OBJECT, "JSONObject");
+
+        JSONNode value = null;
+        int child = entry + 1;
+
+        for (int i = size(); i > 0; i--) {
+            if (document.isEqual(child, key)) {
+                value = new JSONNode(document, child + 1);
+            }
+
+            child = document.getNext(child + 1);
+        }
+
+        return value;
+    }
+
+    /**
+     * Checks if object has member.
+     * @param key Member key.
+     * @return true if key is found, otherwise false.
+     */
+    public boolean has(String key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Gets object keys in document order.
+     * @return List of keys.
+     */
+    public List<String> getKeys() {
+        checkType(JSONTypes.OBJECT, "JSONObject");
+
+        List<String> keys = new ArrayList<>(size());
+        int child = entry + 1;
+
+        for (int i = size(); i > 0; i--) {
+            keys.add(document.decodeString(child));
+            child = document.getNext(child + 1);
+        }
+
+        return keys;
+    }
+
+    /**
+     * Gets array elements or object values in document order.
+     * @return List of nodes.
+     */
+    public List<JSONNode> getChildren() {
+        checkContainer();
+
+        boolean isObject = getType() == JSONTypes.OBJECT;
+        List<JSONNode> children = new ArrayList<>(size());
+        int child = entry + 1;
+
+        for (int i = size(); i > 0; i--) {
+            child += isObject ? 1 : 0;
+            children.add(new JSONNode(document, child));
+            child = document.getNext(child);
+        }
+
+        return children;
+    }
+
+    /**
+     * Gets JSON data as string.
+     * @return String.
+     */
+    public String getAsString() {
+        checkType(JSONTypes.STRING, "String");
+        return document.decodeString(entry);
+    }
+
+    /**
+     * Gets JSON data as decimal.
+     * @return Double.
+     */
+    public Double getAsDecimal() {
+        checkType(JSONTypes.DECIMAL, "Double");
+        return document.decodeLiteral(entry).getDecimal();
+    }
+
+    /**
+     * Gets JSON data as number.
+     * @return Long.
+     */
+    public Long getAsNumber() {
+        checkType(JSONTypes.NUMBER, "Long");
+        return document.decodeLiteral(entry).getNumber();
+    }
+
+    /**
+     * Gets JSON data as boolean.
+     * @return Boolean.
+     */
+    public Boolean getAsBoolean() {
+        checkType(JSONTypes.BOOLEAN, "Boolean");
+        return document.decodeLiteral(entry).getBoolean();
+    }
+
+    /**
+     * Checks if JSON data is null.
+     * @return true if value is null, otherwise false
+     */
+    public boolean isNull() {
+        return getType() == JSONTypes.NULL;
+    }
+
+    /**
+     * Builds regular JSONType tree of this node.
+     * @return {@link JSONType}.
+     */
+    public JSONType toJSONType() {
+        return document.toJSONType(entry);
+    }
+
+    /**
+     * Overrides default constructor.
+     * @param document Owner document.
+     * @param entry    Tape entry.
+     */
+    JSONNode(JSONDocument document, int entry) {
+        this.document = document;
+        this.entry = entry;
+    }
+
+    /**
+     * Overrides default implementation.
+     * @return JSON formatted String of this node.
+     */
+    @Override
+    public String toString() {
+        return toJSONType().toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,29 @@
+package fi.tamk.tiko.ohjelmointi.json;
+
+/**
+ * Defines how NaN and infinite decimals are written.
+ *
+ * JSON has no representation for non-finite decimals, so each policy keeps
+ * the output parseable by {@link JSONTokenizer}.
+ *
+ * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+ * @version 2018.1101
+ * @since   11
+ */
+public enum JSONNonFinite {
+
+    /**
+     * Writes non-finite decimals as null.
+     */
+    NULL,
+
+    /**
+     * Writes non-finite decimals as strings "NaN", "Infinity" and "-Infinity".
+     */
+    STRING,
+
+    /**
+     * Throws {@link JSONException} on non-finite decimals.
+     */
+    ERROR
+}
\ No newline at end of file
@@ -1,21 +1,469 @@
 package fi.tamk.tiko.ohjelmointi.json;
 
-import java.util.HashMap;
+import java.io.Serializable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
 
 /**
  * Stores JSON Object information.
  *
+ * Members are stored in insertion order in parallel key and value arrays.
+ * Small objects are searched linearly, larger objects get an open addressed
+ * hash index over the arrays.
+ *
  * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
  * @version 2018.1101
  * @since   11
  */
-public class JSONObject extends HashMap<String, JSONType> {
+public class JSONObject extends AbstractMap<String, JSONType> implements Cloneable, Serializable, JSONContainer {
 
     /**
      * Stores auto-generated identifier.
      */
     private static final long serialVersionUID = 3588870534679760142L;
 
+    /**
+     * Defines maximum size of objects searched without hash index.
+     */
+    private static final int INDEX_THRESHOLD = 8;
+
+    /**
+     * Defines empty storage.
+     */
+    private static final Object[] EMPTY = {};
+
+    /**
+     * Stores keys in insertion order.
+     */
+    private Object[] keys;
+
+    /**
+     * Stores values in insertion order.
+     */
+    private Object[] values;
+
+    /**
+     * Stores amount of members.
+     */
+    private int size;
+
+    /**
+     * Stores hash index of member positions plus one, or null for small objects.
+     */
+    private transient int[] index;
+
+    /**
+     * Stores amount of structural modifications.
+     */
+    private transient int modCount;
+
+    /**
+     * Stores cached hash code, or 0 if hash code is not cached.
+     */
+    private transient int hash;
+
+    /**
+     * Stores whether cached hash code is 0.
+     */
+    private transient boolean hashIsZero;
+
+    /**
+     * Stores containers holding this object.
+     */
+    private transient Object parents;
+
+    /**
+     * Gets spread hash code of key.
+     * @param key Key identifier.
+     * @return Hash code.
+     */
+    private static int hash(Object key) {
+        int hash = Objects.hashCode(key);
+        return hash ^ hash >>> 16;
+    }
+
+    /**
+     * Finds position of key.
+     * @param key Key identifier.
+     * @return Position of member or -1 if key is not found.
+     */
+    private int indexOf(Object key) {
+        if (index == null && size > INDEX_THRESHOLD) {
+            createIndex();
+        }
+
+        if (index == null) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == key || key != null && key.equals(keys[i])) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        int mask = index.length - 1;
+
+        for (int slot = hash(key) & mask; index[slot] != 0; slot = slot + 1 & mask) {
+            int position = index[slot] - 1;
+
+            if (keys[position] == key || key != null && key.equals(keys[position])) {
+                return position;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Creates hash index of current members.
+     */
+    private void createIndex() {
+        index = new int[Integer.highestOneBit(Math.max(size, INDEX_THRESHOLD) * 4 - 1)];
+
+        for (int i = 0; i < size; i++) {
+            addIndex(i);
+        }
+    }
+
+    /**
+     * Adds member position to hash index.
+     * @param position Position of member.
+     */
+    private void addIndex(int position) {
+        int mask = index.length - 1;
+        int slot = hash(keys[position]) & mask;
+
+        while (index[slot] != 0) {
+            slot = slot + 1 & mask;
+        }
+
+        index[slot] = position + 1;
+    }
+
+    /**
+     * Records structural modification.
+     */
+    private void onModification() {
+        modCount++;
+        onChange();
+    }
+
+    /**
+     * Invalidates cached hash codes if this object has one.
+     */
+    private void onChange() {
+        if (hash != 0 || hashIsZero) {
+            hash = 0;
+            hashIsZero = false;
+            JSONContainer.invalidate(parents);
+        }
+    }
+
+    /**
+     * Invalidates cached hash code of this object and its containers.
+     */
+    @Override
+    public void invalidateHash() {
+        onChange();
+    }
+
+    /**
+     * Remembers container holding this object.
+     * @param parent Container holding this object.
+     */
+    void attach(JSONContainer parent) {
+        parents = JSONContainer.addParent(parents, parent);
+    }
+
+    /**
+     * Forgets container no longer holding this object.
+     * @param parent Container this object was removed from.
+     */
+    void detach(JSONContainer parent) {
+        parents = JSONContainer.removeParent(parents, parent);
+    }
+
+    /**
+     * Makes this object container of value.
+     * @param value Stored value.
+     */
+    private void adopt(JSONType value) {
+        if (value != null) {
+            value.attach(this);
+        }
+    }
+
+    /**
+     * Stops being container of removed or replaced value.
+     * @param value Removed value.
+     */
+    private void disown(JSONType value) {
+        if (value != null) {
+            value.detach(this);
+        }
+    }
+
+    /**
+     * Removes member at given position.
+     * @param position Position of member.
+     * @return Removed value.
+     */
+    private JSONType removeAt(int position) {
+        JSONType value = (JSONType) values[position];
+        disown(value);
+
+        System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+        System.arraycopy(values, position + 1, values, position, size - position - 1);
+        keys[--size] = null;
+        values[size] = null;
+        onModification();
+
+        index = null;
+
+        return value;
+    }
+
+    /**
+     * Gets key at given position in insertion order.
+     * @param position Position of member.
+     * @return Key identifier.
+     */
+    String getKey(int position) {
+        return (String) keys[position];
+    }
+
+    /**
+     * Gets value at given position in insertion order.
+     * @param position Position of member.
+     * @return {@link JSONType}.
+     */
+    JSONType getValue(int position) {
+        return (JSONType) values[position];
+    }
+
+    /**
+     * @see Map#size
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @see Map#containsKey
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @see Map#get
+     */
+    @Override
+    public JSONType get(Object key) {
+        int position = indexOf(key);
+        return position >= 0 ? (JSONType) values[position] : null;
+    }
+
+    /**
+     * @see Map#put
+     */
+    @Override
+    public JSONType put(String key, JSONType value) {
+        int position = indexOf(key);
+
+        if (position >= 0) {
+            JSONType previous = (JSONType) values[position];
+            disown(previous);
+            values[position] = value;
+            adopt(value);
+            onChange();
+
+            return previous;
+        }
+
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(size * 2, 2));
+            values = Arrays.copyOf(values, keys.length);
+        }
+
+        keys[size] = key;
+        values[size] = value;
+        adopt(value);
+        onModification();
+
+        if (index != null) {
+            if (++size * 2 > index.length) {
+                createIndex();
+            } else {
+                addIndex(size - 1);
+            }
+        } else {
+            size++;
+        }
+
+        return null;
+    }
+
+    /**
+     * @see Map#remove
+     */
+    @Override
+    public JSONType remove(Object key) {
+        int position = indexOf(key);
+        return position >= 0 ? removeAt(position) : null;
+    }
+
+    /**
+     * @see Map#clear
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            disown((JSONType) values[i]);
+        }
+
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+
+        size = 0;
+        index = null;
+        onModification();
+    }
+
+    /**
+     * Creates shallow copy of this object.
+     * @return Copy of object sharing its keys and JSONType values.
+     */
+    @Override
+    public Object clone() {
+        try {
+            JSONObject object = (JSONObject) super.clone();
+
+            object.keys = Arrays.copyOf(keys, size);
+            object.values = Arrays.copyOf(values, size);
+            object.index = null;
+            object.modCount = 0;
+            object.hash = 0;
+            object.hashIsZero = false;
+            object.parents = null;
+
+            for (int i = 0; i < size; i++) {
+                object.adopt((JSONType) values[i]);
+            }
+
+            return object;
+        } catch (CloneNotSupportedException e) {
+            throw new InternalError(e);
+        }
+    }
+
+    /**
+     * Performs action for each member in insertion order.
+     * @param action Action receiving key and value.
+     */
+    @Override
+    public void forEach(BiConsumer<? super String, ? super JSONType> action) {
+        int expected = modCount;
+
+        for (int i = 0; i < size; i++) {
+            action.accept((String) keys[i], (JSONType) values[i]);
+        }
+
+        if (modCount != expected) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Overrides default implementation.
+     *
+     * Hash code is computed from member hash codes like in
+     * {@link Map#hashCode} and cached until a value inside this object
+     * changes.
+     *
+     * @return Hash code of members.
+     */
+    @Override
+    public int hashCode() {
+        if (hash != 0 || hashIsZero) {
+            return hash;
+        }
+
+        int result = 0;
+
+        for (int i = 0; i < size; i++) {
+            result += Objects.hashCode(keys[i]) ^ Objects.hashCode(values[i]);
+        }
+
+        if (result == 0) {
+            hashIsZero = true;
+        } else {
+            hash = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Overrides default implementation.
+     *
+     * Sizes are compared first, then hash codes if both objects have already
+     * cached one, then members. Hash codes are never computed for equality.
+     *
+     * @param object Object to compare.
+     * @return true if object is equal, otherwise false
+     */
+    @Override
+    public boolean equals(Object object) {
+        if (object instanceof JSONObject) {
+            JSONObject other = (JSONObject) object;
+
+            if (size != other.size || hash != 0 && other.hash != 0 && hash != other.hash) {
+                return false;
+            }
+        }
+
+        return super.equals(object);
+    }
+
+    /**
+     * Gets members in insertion order.
+     * @return Set view of members.
+     */
+    @Override
+    public Set<Map.Entry<String, JSONType>> entrySet() {
+        return new AbstractSet<>() {
+
+            /**
+             * @see Set#size
+             */
+            @Override
+            public int size() {
+                return size;
+            }
+
+            /**
+             * @see Set#iterator
+             */
+            @Override
+            public Iterator<Map.Entry<String, JSONType>> iterator() {
+                return new EntryIterator();
+            }
+        };
+    }
+
     /**
      * Adds a new array value.
      * @param key   Key identifier.
@@ -78,4 +526,159 @@ public class JSONObject extends HashMap<String, JSONType> {
     public void putNull(String key) {
         put(key, JSONType.createNull());
     }
+
+    /**
+     * Overrides default constructor.
+     */
+    public JSONObject() {
+        keys = EMPTY;
+        values = EMPTY;
+    }
+
+    /**
+     * Iterates members in insertion order.
+     *
+     * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+     * @version 2018.1101
+     * @since   11
+     */
+    private class EntryIterator implements Iterator<Map.Entry<String, JSONType>> {
+
+        /**
+         * Stores position of next member.
+         */
+        private int next;
+
+        /**
+         * Stores position of last returned member.
+         */
+        private int last = -1;
+
+        /**
+         * Stores expected amount of modifications.
+         */
+        private int expected = modCount;
+
+        /**
+         * @see Iterator#hasNext
+         */
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        /**
+         * @see Iterator#next
+         */
+        @Override
+        public Map.Entry<String, JSONType> next() {
+            if (modCount != expected) {
+                throw new ConcurrentModificationException();
+            } else if (next >= size) {
+                throw new NoSuchElementException();
+            }
+
+            return new Entry(last = next++);
+        }
+
+        /**
+         * @see Iterator#remove
+         */
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            } else if (modCount != expected) {
+                throw new ConcurrentModificationException();
+            }
+
+            removeAt(last);
+            next = last;
+            last = -1;
+            expected = modCount;
+        }
+    }
+
+    /**
+     * Provides write-through view to a member.
+     *
+     * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+     * @version 2018.1101
+     * @since   11
+     */
+    private class Entry implements Map.Entry<String, JSONType> {
+
+        /**
+         * Stores position of member.
+         */
+        private final int position;
+
+        /**
+         * Stores key of member.
+         */
+        private final String key;
+
+        /**
+         * @see Map.Entry#getKey
+         */
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * @see Map.Entry#getValue
+         */
+        @Override
+        public JSONType getValue() {
+            return keys[position] == key ? (JSONType) values[position] : get(key);
+        }
+
+        /**
+         * @see Map.Entry#setValue
+         */
+        @Override
+        public JSONType setValue(JSONType value) {
+            return put(key, value);
+        }
+
+        /**
+         * Overrides default constructor.
+         * @param position Position of member.
+         */
+        Entry(int position) {
+            this.position = position;
+            this.key = (String) keys[position];
+        }
+
+        /**
+         * @see Map.Entry#equals
+         */
+        @Override
+        public boolean equals(Object object) {
+            if (object instanceof Map.Entry) {
+                Map.Entry<?, ?> entry = (Map.Entry<?, ?>) object;
+                return Objects.equals(key, entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+            }
+
+            return false;
+        }
+
+        /**
+         * @see Map.Entry#hashCode
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(getValue());
+        }
+
+        /**
+         * Overrides default implementation.
+         * @return Member as key=value String.
+         */
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,216 @@
+package fi.tamk.tiko.ohjelmointi.json;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Selects values from JSON data with compiled path expressions.
+ *
+ * Supported expression syntax:
+ * <ul>
+ * <li>{@code $} root value</li>
+ * <li>{@code .name} or {@code ['name']} object member</li>
+ * <li>{@code [index]} array element</li>
+ * <li>{@code .*} or {@code [*]} any member or element</li>
+ * </ul>
+ *
+ * Selection runs over a {@link JSONStreamReader}. Only matching values are
+ * built, other subtrees are skipped without building them.
+ *
+ * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+ * @version 2018.1101
+ * @since   11
+ */
+public class JSONPath {
+
+    /**
+     * Defines index of steps matching any child.
+     */
+    private static final int ANY = -1;
+
+    /**
+     * Defines index of steps matching object members.
+     */
+    private static final int MEMBER = -2;
+
+    /**
+     * Stores path expression.
+     */
+    private final String expression;
+
+    /**
+     * Stores member names of steps.
+     */
+    private final String[] names;
+
+    /**
+     * Stores element indexes of steps.
+     */
+    private final int[] indexes;
+
+    /**
+     * Compiles path expression.
+     * @param expression Path expression.
+     * @return {@link JSONPath}.
+     * @throws IllegalArgumentException Exception is thrown if expression is malformed.
+     */
+    public static JSONPath compile(String expression) {
+        List<String> names = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+
+        if (!expression.startsWith("$")) {
+            throw new IllegalArgumentException("Path must start with <$>: " + expression);
+        }
+
+        int position = 1;
+
+        while (position < expression.length()) {
+            char key = expression.charAt(position++);
+            int end;
+
+            if (key == '.' && expression.startsWith("*", position)) {
+                names.add(null);
+                indexes.add(ANY);
+                position++;
+            } else if (key == '.') {
+                for (end = position; end < expression.length(); end++) {
+                    if (expression.charAt(end) == '.' || expression.charAt(end) == '[') {
+                        break;
+                    }
+                }
+
+                if (end == position) {
+                    throw new IllegalArgumentException("Missing member name at " + position + ": " + expression);
+                }
+
+                names.add(expression.substring(position, end));
+                indexes.add(MEMBER);
+                position = end;
+            } else if (key == '[' && (end = expression.indexOf(']', position)) != -1) {
+                String step = expression.substring(position, end);
+                position = end + 1;
+
+                if (step.equals("*")) {
+                    names.add(null);
+                    indexes.add(ANY);
+                } else if (step.length() >= 2 && (step.charAt(0) == '\'' || step.charAt(0) == '"') && step.endsWith(step.substring(0, 1))) {
+                    names.add(step.substring(1, step.length() - 1));
+                    indexes.add(MEMBER);
+                } else if (step.matches("\\d+")) {
+                    names.add(null);
+                    indexes.add(Integer.parseInt(step));
+                } else {
+                    throw new IllegalArgumentException("Malformed step <" + step + ">: " + expression);
+                }
+            } else {
+                throw new IllegalArgumentException("Unexpected <" + key + "> at " + (position - 1) + ": " + expression);
+            }
+        }
+
+        return new JSONPath(expression, names, indexes);
+    }
+
+    /**
+     * Selects matching values.
+     *
+     * Every top level value is searched if the reader accepts a sequence.
+     *
+     * @param reader   {@link JSONStreamReader} positioned before a value.
+     * @param callback Receiver of matching values.
+     * @throws IOException Exception is thrown if input is unaccessible.
+     */
+    public void select(JSONStreamReader reader, Consumer<JSONType> callback) throws IOException {
+        while (reader.nextToken() != null) {
+            select(reader, 0, callback);
+        }
+    }
+
+    /**
+     * Selects matching values.
+     * @param reader {@link JSONStreamReader} positioned before a value.
+     * @return List of matching values.
+     * @throws IOException Exception is thrown if input is unaccessible.
+     */
+    public List<JSONType> select(JSONStreamReader reader) throws IOException {
+        List<JSONType> values = new ArrayList<>();
+        select(reader, values::add);
+
+        return values;
+    }
+
+    /**
+     * Selects matching values.
+     * @param stream JSON formatted data.
+     * @return List of matching values.
+     */
+    public List<JSONType> select(String stream) {
+        try {
+            return select(new JSONStreamReader(new StringReader(stream)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Selects matching values from value started by current token.
+     * @param reader   {@link JSONStreamReader}.
+     * @param step     Index of current step.
+     * @param callback Receiver of matching values.
+     * @throws IOException Exception is thrown if input is unaccessible.
+     */
+    private void select(JSONStreamReader reader, int step, Consumer<JSONType> callback) throws IOException {
+        if (step == names.length) {
+            callback.accept(reader.readCurrentValue());
+            return;
+        }
+
+        JSONTokens container = reader.getToken();
+
+        if (container == JSONTokens.START_ARRAY) {
+            for (int index = 0; reader.nextToken() != JSONTokens.END_ARRAY; index++) {
+                if (indexes[step] == ANY || indexes[step] == index) {
+                    select(reader, step + 1, callback);
+                } else {
+                    reader.skipValue();
+                }
+            }
+        } else if (container == JSONTokens.START_OBJECT) {
+            while (reader.nextToken() != JSONTokens.END_OBJECT) {
+                boolean isMatch = indexes[step] == ANY || indexes[step] == MEMBER && names[step].equals(reader.getString());
+                reader.nextToken();
+
+                if (isMatch) {
+                    select(reader, step + 1, callback);
+                } else {
+                    reader.skipValue();
+                }
+            }
+        }
+    }
+
+    /**
+     * Overrides default constructor.
+     * @param expression Path expression.
+     * @param names      Member names of steps.
+     * @param indexes    Element indexes of steps.
+     */
+    private JSONPath(String expression, List<String> names, List<Integer> indexes) {
+        this.expression = expression;
+        this.names = names.toArray(new String[0]);
+        this.indexes = indexes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Overrides default implementation.
+     * @return Path expression.
+     */
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
\ No newline at end of file
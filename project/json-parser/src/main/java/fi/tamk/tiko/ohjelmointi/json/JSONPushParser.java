@@ -0,0 +1,810 @@
+package fi.tamk.tiko.ohjelmointi.json;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Parses UTF-8 encoded JSON data pushed in arbitrary chunks.
+ *
+ * Parser keeps its state between chunks, so a chunk may end anywhere, also
+ * in the middle of a string, escape sequence, number or comment. Values are
+ * passed to the callback as soon as they are complete. Values completed at
+ * the given emit depth are passed to the callback instead of their parent,
+ * so with depth 1 elements of a large top level array are handled one at a
+ * time while the data is still arriving. Input may contain a sequence of
+ * concatenated or newline-delimited values.
+ *
+ * Errors are sticky: after a {@link JSONException} every later call to
+ * {@link #feed} or {@link #end} throws the same exception until the parser
+ * is {@link #reset}, so no value is parsed on top of a broken state.
+ *
+ * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+ * @version 2018.1101
+ * @since   11
+ */
+public class JSONPushParser {
+
+    /**
+     * Defines state when value is expected.
+     */
+    private static final int EXPECT_VALUE = 0;
+
+    /**
+     * Defines state when value or end of array is expected.
+     */
+    private static final int EXPECT_FIRST_VALUE = 1;
+
+    /**
+     * Defines state when key is expected.
+     */
+    private static final int EXPECT_KEY = 2;
+
+    /**
+     * Defines state when key or end of object is expected.
+     */
+    private static final int EXPECT_FIRST_KEY = 3;
+
+    /**
+     * Defines state when colon is expected.
+     */
+    private static final int EXPECT_COLON = 4;
+
+    /**
+     * Defines state when comma or end of container is expected.
+     */
+    private static final int EXPECT_NEXT = 5;
+
+    /**
+     * Defines mode between tokens.
+     */
+    private static final int STRUCTURE = 0;
+
+    /**
+     * Defines mode inside string.
+     */
+    private static final int STRING = 1;
+
+    /**
+     * Defines mode after string escape character.
+     */
+    private static final int ESCAPE = 2;
+
+    /**
+     * Defines mode inside Unicode escape sequence.
+     */
+    private static final int UNICODE = 3;
+
+    /**
+     * Defines mode inside literal.
+     */
+    private static final int LITERAL = 4;
+
+    /**
+     * Defines mode after comment start character.
+     */
+    private static final int COMMENT_START = 5;
+
+    /**
+     * Defines mode inside line comment.
+     */
+    private static final int LINE_COMMENT = 6;
+
+    /**
+     * Defines mode inside block comment.
+     */
+    private static final int BLOCK_COMMENT = 7;
+
+    /**
+     * Stores receiver of completed values.
+     */
+    private final Consumer<JSONType> callback;
+
+    /**
+     * Stores depth of emitted values.
+     */
+    private final int emitDepth;
+
+    /**
+     * Stores required type of top level values or null for any type.
+     */
+    private JSONTypes rootType;
+
+    /**
+     * Stores literal decoder.
+     */
+    private final JSONLiteral literal;
+
+    /**
+     * Stores decoded string characters.
+     */
+    private final StringBuilder text;
+
+    /**
+     * Stores open containers, or null for containers above emit depth.
+     */
+    private JSONType[] containers;
+
+    /**
+     * Stores closing characters of open containers.
+     */
+    private char[] closers;
+
+    /**
+     * Stores pending keys of open objects.
+     */
+    private String[] keys;
+
+    /**
+     * Stores amount of open containers.
+     */
+    private int depth;
+
+    /**
+     * Stores structural state.
+     */
+    private int state;
+
+    /**
+     * Stores lexical mode.
+     */
+    private int mode;
+
+    /**
+     * Stores raw bytes of current string or literal.
+     */
+    private byte[] bytes;
+
+    /**
+     * Stores amount of raw bytes.
+     */
+    private int byteCount;
+
+    /**
+     * Stores quote type of current string.
+     */
+    private int quoteType;
+
+    /**
+     * Stores whether current string is a key.
+     */
+    private boolean isKey;
+
+    /**
+     * Stores value of current Unicode escape sequence.
+     */
+    private int unicode;
+
+    /**
+     * Stores amount of read Unicode digits.
+     */
+    private int unicodeDigits;
+
+    /**
+     * Stores previous byte for block comments and newlines.
+     */
+    private int previous;
+
+    /**
+     * Stores current line number.
+     */
+    private int lineNumber;
+
+    /**
+     * Stores current column number.
+     */
+    private int column;
+
+    /**
+     * Stores error ending current input, or null.
+     */
+    private JSONException failure;
+
+    /**
+     * Sets required type of top level values.
+     *
+     * Values above the emit depth are never passed to the callback, so this
+     * lets a parser emitting array elements reject a top level object or
+     * scalar instead of silently skipping it.
+     *
+     * @param rootType {@link JSONTypes} of top level values or null for any type.
+     */
+    public void setRootType(JSONTypes rootType) {
+        this.rootType = rootType;
+    }
+
+    /**
+     * Feeds chunk of data.
+     * @param data Chunk of UTF-8 encoded data.
+     */
+    public void feed(byte[] data) {
+        feed(data, 0, data.length);
+    }
+
+    /**
+     * Feeds chunk of data.
+     * @param data   Chunk of UTF-8 encoded data.
+     * @param offset Start offset of chunk.
+     * @param length Length of chunk.
+     */
+    public void feed(byte[] data, int offset, int length) {
+        checkFailure();
+
+        try {
+            read(data, offset, offset + length);
+        } catch (JSONException e) {
+            failure = e;
+            throw e;
+        }
+    }
+
+    /**
+     * Reads chunk of data.
+     * @param data   Chunk of UTF-8 encoded data.
+     * @param offset Start offset of chunk.
+     * @param end    End offset of chunk.
+     */
+    private void read(byte[] data, int offset, int end) {
+        for (int i = offset; i < end; i++) {
+            if (mode == STRING && (i = readString(data, i, end)) == end) {
+                break;
+            }
+
+            int character = data[i] & 0xFF;
+
+            if ((character & 0xC0) != 0x80) {
+                column++;
+            }
+
+            if (character == '\r' || character == '\n') {
+                if (character == '\r' || previous != '\r') {
+                    lineNumber++;
+                }
+
+                column = 0;
+            }
+
+            switch (mode) {
+                case STRING:
+                    if (character == quoteType) {
+                        endString();
+                    } else if (character == '\\') {
+                        flush();
+                        mode = ESCAPE;
+                    } else {
+                        onError("Malformed string - illegal <newline> at line: %d, %d", lineNumber, column);
+                    }
+
+                    break;
+
+                case ESCAPE:
+                    readEscape(character);
+                    break;
+
+                case UNICODE:
+                    readUnicode(character);
+                    break;
+
+                case LITERAL:
+                    if (!isTerminator(character)) {
+                        append((byte) character);
+                        break;
+                    }
+
+                    endLiteral();
+                    readStructure(character);
+                    break;
+
+                case COMMENT_START:
+                    if (character == '*') {
+                        mode = BLOCK_COMMENT;
+                        character = -1;
+                    } else if (character == '/') {
+                        mode = LINE_COMMENT;
+                    } else {
+                        onError("Malformed literal - illegal value <%c> at line: %d, %d", '/', lineNumber, column - 1);
+                    }
+
+                    break;
+
+                case LINE_COMMENT:
+                    if (character == '\r' || character == '\n') {
+                        mode = STRUCTURE;
+                    }
+
+                    break;
+
+                case BLOCK_COMMENT:
+                    if (character == '/' && previous == '*') {
+                        mode = STRUCTURE;
+                    }
+
+                    break;
+
+                default:
+                    readStructure(character);
+            }
+
+            previous = character;
+        }
+    }
+
+    /**
+     * Feeds chunk of data.
+     *
+     * Data between buffer position and limit is consumed.
+     *
+     * @param buffer Chunk of UTF-8 encoded data.
+     */
+    public void feed(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            feed(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            buffer.position(buffer.limit());
+            return;
+        }
+
+        byte[] chunk = new byte[Math.min(buffer.remaining(), 8192)];
+
+        while (buffer.hasRemaining()) {
+            int length = Math.min(buffer.remaining(), chunk.length);
+            buffer.get(chunk, 0, length);
+            feed(chunk, 0, length);
+        }
+    }
+
+    /**
+     * Ends input.
+     *
+     * Pending top level literal is completed and input is checked to end
+     * outside of any value. Parser is reset for a new input afterwards.
+     */
+    public void end() {
+        checkFailure();
+
+        try {
+            checkEnd();
+        } catch (JSONException e) {
+            failure = e;
+            throw e;
+        }
+
+        reset();
+    }
+
+    /**
+     * Checks that input ends outside of any value.
+     */
+    private void checkEnd() {
+        switch (mode) {
+            case LITERAL:
+                endLiteral();
+                break;
+
+            case COMMENT_START:
+                throw new JSONException("Malformed literal - illegal value <%c> at line: %d, %d", '/', lineNumber, column);
+
+            case BLOCK_COMMENT:
+                throw new JSONException("Malformed comment - missing <*/> at EOF");
+
+            case STRING:
+            case ESCAPE:
+            case UNICODE:
+                throw new JSONException("Malformed string - invalid <string> at line: %d, %d", lineNumber, column);
+        }
+
+        if (depth > 0) {
+            throw createMissingError(state == EXPECT_VALUE && closers[depth - 1] == '}' ? 'v' : closers[depth - 1]);
+        }
+    }
+
+    /**
+     * Rethrows error ending current input.
+     */
+    private void checkFailure() {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Checks if parser is between top level values.
+     * @return true if no value is partially read, otherwise false.
+     */
+    public boolean isComplete() {
+        return depth == 0 && mode != STRING && mode != ESCAPE && mode != UNICODE && mode != LITERAL;
+    }
+
+    /**
+     * Reads structural character.
+     * @param character Read character.
+     */
+    private void readStructure(int character) {
+        mode = STRUCTURE;
+
+        switch (character) {
+            case ' ':
+            case '\t':
+            case '\r':
+            case '\n':
+                return;
+
+            case '#':
+                mode = LINE_COMMENT;
+                return;
+
+            case '/':
+                mode = COMMENT_START;
+                return;
+
+            case '[':
+            case '{':
+                onValueStart();
+                checkRootType(character == '[' ? JSONTypes.ARRAY : JSONTypes.OBJECT);
+                push(character == '[' ? ']' : '}');
+                return;
+
+            case ']':
+            case '}':
+            case ',':
+            case ':':
+                if (depth > 0 && character == closers[depth - 1]) {
+                    if (state == EXPECT_NEXT || state == EXPECT_FIRST_VALUE || state == EXPECT_FIRST_KEY) {
+                        onValue(containers[--depth]);
+                        containers[depth] = null;
+                        return;
+                    }
+                }
+
+                if (character == ',' && state == EXPECT_NEXT) {
+                    state = closers[depth - 1] == ']' ? EXPECT_VALUE : EXPECT_KEY;
+                    return;
+                } else if (character == ':' && state == EXPECT_COLON) {
+                    state = EXPECT_VALUE;
+                    return;
+                } else if (depth == 0) {
+                    onError("Malformed identifier - missing <%c> at line: %d, %d", (char) character, lineNumber, column);
+                }
+
+                throw createMissingError(state == EXPECT_VALUE && closers[depth - 1] == '}' ? 'v' : closers[depth - 1]);
+
+            case '"':
+            case '\'':
+                isKey = state == EXPECT_KEY || state == EXPECT_FIRST_KEY;
+
+                if (!isKey) {
+                    onValueStart();
+                    checkRootType(JSONTypes.STRING);
+                }
+
+                quoteType = character;
+                mode = STRING;
+                byteCount = 0;
+                text.setLength(0);
+                return;
+
+            default:
+                onValueStart();
+                checkRootType(null);
+                mode = LITERAL;
+                byteCount = 0;
+                append((byte) character);
+        }
+    }
+
+    /**
+     * Checks that a value is expected.
+     */
+    private void onValueStart() {
+        switch (state) {
+            case EXPECT_VALUE:
+            case EXPECT_FIRST_VALUE:
+                return;
+
+            case EXPECT_KEY:
+            case EXPECT_FIRST_KEY:
+                onError("Malformed object - missing <key> at line: %d, %d", lineNumber, column);
+        }
+
+        throw createMissingError(state == EXPECT_COLON ? ':' : ',');
+    }
+
+    /**
+     * Checks that a top level value has the required type.
+     * @param type {@link JSONTypes} of starting value or null for literals.
+     */
+    private void checkRootType(JSONTypes type) {
+        if (depth == 0 && rootType != null && type != rootType) {
+            onError("Malformed structure - expected <%s> at line: %d, %d", rootType, lineNumber, column);
+        }
+    }
+
+    /**
+     * Handles completed value.
+     * @param value Completed value or null above emit depth.
+     */
+    private void onValue(JSONType value) {
+        if (depth == emitDepth) {
+            callback.accept(value);
+        } else if (depth > emitDepth) {
+            JSONType container = containers[depth - 1];
+
+            if (container.getType() == JSONTypes.ARRAY) {
+                container.getAsArray().append(value);
+            } else {
+                container.getAsObject().put(keys[depth - 1], value);
+            }
+        }
+
+        state = depth == 0 ? EXPECT_VALUE : EXPECT_NEXT;
+    }
+
+    /**
+     * Opens container.
+     * @param closer Closing character of container.
+     */
+    private void push(char closer) {
+        if (depth == containers.length) {
+            containers = Arrays.copyOf(containers, depth * 2);
+            closers = Arrays.copyOf(closers, depth * 2);
+            keys = Arrays.copyOf(keys, depth * 2);
+        }
+
+        if (depth >= emitDepth) {
+            containers[depth] = closer == ']' ? JSONType.createArray(new JSONArray()) : JSONType.createObject(new JSONObject());
+        }
+
+        closers[depth++] = closer;
+        state = closer == ']' ? EXPECT_FIRST_VALUE : EXPECT_FIRST_KEY;
+    }
+
+    /**
+     * Reads string characters up to next special character.
+     * @param data  Chunk of data.
+     * @param start Start offset.
+     * @param end   End offset.
+     * @return Offset of special character or end offset.
+     */
+    private int readString(byte[] data, int start, int end) {
+        int i = start;
+
+        while (i < end) {
+            int character = data[i];
+
+            if (character == quoteType || character == '\\' || character == '\r' || character == '\n') {
+                break;
+            }
+
+            if ((character & 0xC0) != 0x80) {
+                column++;
+            }
+
+            i++;
+        }
+
+        if (i > start) {
+            append(data, start, i - start);
+        }
+
+        return i;
+    }
+
+    /**
+     * Reads escaped character.
+     * @param character Read character.
+     */
+    private void readEscape(int character) {
+        mode = STRING;
+
+        switch (character) {
+            case 'r': text.append('\r'); return;
+            case 'n': text.append('\n'); return;
+            case 't': text.append('\t'); return;
+            case 'b': text.append('\b'); return;
+            case 'f': text.append('\f'); return;
+
+            case 'u':
+                mode = UNICODE;
+                unicode = 0;
+                unicodeDigits = 0;
+                return;
+
+            case '"':
+            case '\'':
+            case '\\':
+            case '/':
+                text.append((char) character);
+                return;
+        }
+
+        onError("Malformed string - unexpected <%c> at line: %d, %d", (char) character, lineNumber, column);
+    }
+
+    /**
+     * Reads digit of Unicode escape sequence.
+     * @param character Read character.
+     */
+    private void readUnicode(int character) {
+        int digit = JSONSource.getHexValue(character);
+
+        if (digit < 0) {
+            onError("Malformed character - invalid <unicode sequence> at line: %d, %d", lineNumber, column);
+        }
+
+        unicode = unicode << 4 | digit;
+
+        if (++unicodeDigits == 4) {
+            text.append((char) unicode);
+            mode = STRING;
+        }
+    }
+
+    /**
+     * Completes current string.
+     */
+    private void endString() {
+        flush();
+        mode = STRUCTURE;
+
+        if (isKey) {
+            keys[depth - 1] = text.toString();
+            state = EXPECT_COLON;
+        } else {
+            onValue(depth >= emitDepth ? JSONType.createString(text.toString()) : null);
+        }
+    }
+
+    /**
+     * Completes current literal.
+     */
+    private void endLiteral() {
+        mode = STRUCTURE;
+
+        if (!literal.decode(JSONSource.of(ByteBuffer.wrap(bytes, 0, byteCount)), 0, byteCount)) {
+            String value = new String(bytes, 0, byteCount, StandardCharsets.UTF_8);
+            onError("Malformed literal - illegal value <%s> at line: %d, %d", value, lineNumber, column);
+        }
+
+        onValue(literal.toJSONType());
+    }
+
+    /**
+     * Decodes pending raw bytes to string characters.
+     */
+    private void flush() {
+        if (byteCount > 0) {
+            text.append(new String(bytes, 0, byteCount, StandardCharsets.UTF_8));
+            byteCount = 0;
+        }
+    }
+
+    /**
+     * Appends raw byte.
+     * @param value Byte value.
+     */
+    private void append(byte value) {
+        if (byteCount == bytes.length) {
+            bytes = Arrays.copyOf(bytes, byteCount * 2);
+        }
+
+        bytes[byteCount++] = value;
+    }
+
+    /**
+     * Appends raw bytes.
+     * @param data   Source data.
+     * @param offset Start offset.
+     * @param length Amount of bytes.
+     */
+    private void append(byte[] data, int offset, int length) {
+        if (byteCount + length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, byteCount + length));
+        }
+
+        System.arraycopy(data, offset, bytes, byteCount, length);
+        byteCount += length;
+    }
+
+    /**
+     * Checks if character ends a literal.
+     * @param character Checked character.
+     * @return true if character ends literal, otherwise false.
+     */
+    private static boolean isTerminator(int character) {
+        switch (character) {
+            case ',':
+            case ']':
+            case '}':
+            case ' ':
+            case '\t':
+            case '\r':
+            case '\n':
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Creates exception for missing identifier.
+     * @param identifier Missing identifier, 'v' for missing value.
+     * @return {@link JSONException} to throw.
+     */
+    private JSONException createMissingError(int identifier) {
+        switch (identifier) {
+            case ']':
+                return new JSONException("Malformed array - missing <]> at line: %d, %d", lineNumber, column);
+
+            case '}':
+                return new JSONException("Malformed object - missing <}> at line: %d, %d", lineNumber, column);
+
+            case ':':
+                return new JSONException("Malformed object - missing <:> at line: %d, %d", lineNumber, column);
+
+            case 'v':
+                return new JSONException("Malformed object - missing <value> at line: %d, %d", lineNumber, column);
+        }
+
+        String type = closers[depth - 1] == ']' ? "array" : "object";
+        return new JSONException("Malformed %s - missing <,> at line: %d, %d", type, lineNumber, column);
+    }
+
+    /**
+     * Resets parser for new input.
+     *
+     * Partially read value and any error ending the previous input are
+     * discarded.
+     */
+    public void reset() {
+        Arrays.fill(containers, null);
+        Arrays.fill(keys, null);
+
+        depth = 0;
+        state = EXPECT_VALUE;
+        mode = STRUCTURE;
+        byteCount = 0;
+        previous = -1;
+        lineNumber = 1;
+        column = 0;
+        failure = null;
+    }
+
+    /**
+     * Overrides default constructor.
+     * @param callback Receiver of completed top level values.
+     */
+    public JSONPushParser(Consumer<JSONType> callback) {
+        this(0, callback);
+    }
+
+    /**
+     * Overloads default constructor.
+     * @param emitDepth Depth of emitted values, 0 for top level values.
+     * @param callback  Receiver of completed values.
+     */
+    public JSONPushParser(int emitDepth, Consumer<JSONType> callback) {
+        if (emitDepth < 0) {
+            throw new IllegalArgumentException("Illegal emit depth: " + emitDepth);
+        }
+
+        this.callback = callback;
+        this.emitDepth = emitDepth;
+        this.literal = new JSONLiteral();
+        this.text = new StringBuilder();
+        this.containers = new JSONType[16];
+        this.closers = new char[16];
+        this.keys = new String[16];
+        this.bytes = new byte[64];
+
+        reset();
+    }
+
+    /**
+     * Throws exception on error.
+     * @param message Message formatting.
+     * @param args    Arguments.
+     */
+    private static void onError(String message, Object... args) {
+        throw new JSONException(message, args);
+    }
+}
\ No newline at end of file
@@ -2,7 +2,31 @@ package fi.tamk.tiko.ohjelmointi.json;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.io.PushbackReader;
 import java.io.Reader;
+import java.io.UncheckedIOException;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Reads JSON formatted data.
@@ -13,6 +37,32 @@ import java.io.Reader;
  */
 public class JSONReader implements AutoCloseable {
 
+    /**
+     * Defines minimum file size for memory mapping.
+     */
+    private static final long MAPPING_THRESHOLD = 64 * 1024;
+
+    /**
+     * Defines size of blocks read when input size is unknown.
+     */
+    private static final int BLOCK_SIZE = 8192;
+
+    /**
+     * Defines maximum size of pooled buffers, larger ones are left to the
+     * garbage collector instead of being kept alive by the pool.
+     */
+    private static final int MAX_POOLED_SIZE = 1 << 16;
+
+    /**
+     * Stores released byte buffers for reuse.
+     */
+    private static final BlockingQueue<byte[]> BYTE_BUFFERS = new ArrayBlockingQueue<>(2);
+
+    /**
+     * Stores released character buffers for reuse.
+     */
+    private static final BlockingQueue<char[]> CHAR_BUFFERS = new ArrayBlockingQueue<>(2);
+
     /**
      * Stores {@link JSONTokenizer}.
      */
@@ -23,20 +73,70 @@ public class JSONReader implements AutoCloseable {
      */
     private Object readable;
 
+    /**
+     * Stores {@link JSONStreamReader} used for reading value sequences.
+     */
+    private JSONStreamReader streamReader;
+
+    /**
+     * Stores optional symbol table.
+     */
+    private JSONSymbolTable symbols;
+
+    /**
+     * Stores pooled buffer holding read contents.
+     */
+    private Object buffer;
+
+    /**
+     * Stores expected length of contents, or -1 if unknown.
+     */
+    private long length = -1;
+
+    /**
+     * Sets symbol table used for keys and short values.
+     * @param symbols {@link JSONSymbolTable} or null.
+     * @see JSONTokenizer#setSymbolTable
+     */
+    public void setSymbolTable(JSONSymbolTable symbols) {
+        this.symbols = symbols;
+
+        if (tokenizer != null) {
+            tokenizer.setSymbolTable(symbols);
+        }
+    }
+
     /**
      * Uses {@link Reader} to read file contents.
-     * @param builder StringBuilder instance.
+     *
+     * Contents are read in blocks straight into a pooled buffer, which is
+     * sized from the expected length when it is given. A leading byte order
+     * mark is skipped.
+     *
      * @return true if successful, otherwise false.
      * @throws IOException Exception is thrown if file is unaccessible.
      */
-    private boolean useReader(StringBuilder builder) throws IOException {
+    private boolean useReader() throws IOException {
         if (readable instanceof Reader) {
-            int character;
+            Reader reader = (Reader) readable;
+            char[] chars = acquireChars((int) Math.min(Math.max(length + 1, BLOCK_SIZE), Integer.MAX_VALUE - 8));
+            int length = 0;
+            int count;
+
+            while ((count = reader.read(chars, length, chars.length - length)) != -1) {
+                length += count;
+
+                if (length == chars.length) {
+                    chars = Arrays.copyOf(chars, chars.length * 2);
+                }
+            }
 
-            while ((character = ((Reader) readable).read()) != -1) {
-                builder.append((char) character);
+            if (length > 0 && chars[0] == '\uFEFF') {
+                System.arraycopy(chars, 1, chars, 0, --length);
             }
 
+            buffer = chars;
+            tokenizer = new JSONTokenizer(JSONSource.of(chars, length));
             return true;
         }
 
@@ -45,40 +145,315 @@ public class JSONReader implements AutoCloseable {
 
     /**
      * Uses {@link InputStream} to read file contents.
-     * @param builder StringBuilder instance.
+     *
+     * Contents are read in blocks straight into a pooled buffer, which is
+     * sized from {@link InputStream#available} when the size is known.
+     *
      * @return true if successful, otherwise false.
      * @throws IOException Exception is thrown if file is unaccessible.
+     * @see #createTokenizer
      */
-    private boolean useStream(StringBuilder builder) throws IOException {
+    private boolean useStream() throws IOException {
         if (readable instanceof InputStream) {
-            int character;
+            InputStream stream = (InputStream) readable;
+            byte[] bytes = acquireBytes(Math.max(stream.available() + 1, BLOCK_SIZE));
+            int length = 0;
+            int count;
+
+            while ((count = stream.read(bytes, length, bytes.length - length)) != -1) {
+                length += count;
 
-            while ((character = ((InputStream) readable).read()) != -1) {
-                builder.append((char) character);
+                if (length == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
             }
 
+            buffer = bytes;
+            tokenizer = createTokenizer(ByteBuffer.wrap(bytes, 0, length));
             return true;
         }
 
         return false;
     }
 
+    /**
+     * Detects encoding of contents.
+     *
+     * Encoding is detected from a byte order mark, or from zero bytes of
+     * the first character as in RFC 4627. UTF-8 byte order mark is skipped.
+     *
+     * @param bytes Encoded contents.
+     * @return {@link Charset} of contents.
+     */
+    private static Charset detectCharset(ByteBuffer bytes) {
+        Charset charset = StandardCharsets.UTF_8;
+        int start = bytes.position();
+
+        if (bytes.remaining() >= 2) {
+            int first = bytes.get(start) & 0xFF;
+            int second = bytes.get(start + 1) & 0xFF;
+
+            if (first == 0xEF && second == 0xBB && bytes.remaining() >= 3 && (bytes.get(start + 2) & 0xFF) == 0xBF) {
+                bytes.position(start + 3);
+            } else if (first == 0xFE && second == 0xFF || first == 0xFF && second == 0xFE) {
+                charset = StandardCharsets.UTF_16;
+            } else if (first == 0 && second != 0) {
+                charset = StandardCharsets.UTF_16BE;
+            } else if (first != 0 && second == 0) {
+                charset = StandardCharsets.UTF_16LE;
+            }
+        }
+
+        return charset;
+    }
+
+    /**
+     * Creates tokenizer of encoded contents.
+     *
+     * UTF-8 is tokenized as is, UTF-16 is decoded to characters first.
+     *
+     * @param bytes Encoded contents.
+     * @return {@link JSONTokenizer}.
+     * @see #detectCharset
+     */
+    private static JSONTokenizer createTokenizer(ByteBuffer bytes) {
+        Charset charset = detectCharset(bytes);
+
+        if (charset == StandardCharsets.UTF_8) {
+            return new JSONTokenizer(bytes);
+        }
+
+        CharBuffer chars = charset.decode(bytes);
+        return new JSONTokenizer(JSONSource.of(chars.array(), chars.limit()));
+    }
+
+    /**
+     * Creates incremental reader of encoded stream.
+     *
+     * Encoding is detected from the first bytes as with
+     * {@link #createTokenizer} and contents are decoded while reading.
+     *
+     * @param stream {@link InputStream} object.
+     * @return {@link JSONStreamReader}.
+     * @throws IOException Exception is thrown if file is unaccessible.
+     */
+    private static JSONStreamReader createStreamReader(InputStream stream) throws IOException {
+        PushbackInputStream input = new PushbackInputStream(stream, 3);
+        byte[] head = new byte[3];
+        int length = input.readNBytes(head, 0, 2);
+
+        if (length == 2 && (head[0] & 0xFF) == 0xEF && (head[1] & 0xFF) == 0xBB) {
+            length += input.readNBytes(head, 2, 1);
+        }
+
+        ByteBuffer bytes = ByteBuffer.wrap(head, 0, length);
+        Charset charset = detectCharset(bytes);
+        input.unread(head, bytes.position(), length - bytes.position());
+
+        return new JSONStreamReader(new InputStreamReader(input, charset));
+    }
+
+    /**
+     * Creates incremental reader of characters, skipping a byte order mark.
+     * @param reader {@link Reader} object.
+     * @return {@link JSONStreamReader}.
+     * @throws IOException Exception is thrown if file is unaccessible.
+     */
+    private static JSONStreamReader createStreamReader(Reader reader) throws IOException {
+        PushbackReader input = new PushbackReader(reader, 1);
+        int character = input.read();
+
+        if (character != -1 && character != '\uFEFF') {
+            input.unread(character);
+        }
+
+        return new JSONStreamReader(input);
+    }
+
+    /**
+     * Takes byte buffer from pool or allocates a new one.
+     * @param size Minimum size.
+     * @return Byte array.
+     */
+    private static byte[] acquireBytes(int size) {
+        byte[] bytes = BYTE_BUFFERS.poll();
+
+        return bytes != null && bytes.length >= size ? bytes : new byte[size];
+    }
+
+    /**
+     * Takes character buffer from pool or allocates a new one.
+     * @param size Minimum size.
+     * @return Character array.
+     */
+    private static char[] acquireChars(int size) {
+        char[] chars = CHAR_BUFFERS.poll();
+
+        return chars != null && chars.length >= size ? chars : new char[size];
+    }
+
+    /**
+     * Returns buffer of read contents to pool.
+     */
+    private void releaseBuffer() {
+        if (buffer instanceof byte[] && ((byte[]) buffer).length <= MAX_POOLED_SIZE) {
+            BYTE_BUFFERS.offer((byte[]) buffer);
+        } else if (buffer instanceof char[] && ((char[]) buffer).length <= MAX_POOLED_SIZE) {
+            CHAR_BUFFERS.offer((char[]) buffer);
+        }
+
+        buffer = null;
+        tokenizer = null;
+    }
+
+    /**
+     * Uses {@link ByteBuffer} to read encoded contents.
+     * @return true if successful, otherwise false.
+     * @see #createTokenizer
+     */
+    private boolean useBuffer() {
+        if (readable instanceof ByteBuffer) {
+            tokenizer = createTokenizer(((ByteBuffer) readable).duplicate());
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets tokenizer of readable object.
+     * @return {@link JSONTokenizer}.
+     * @throws IOException Exception is thrown if file is unaccessible.
+     */
+    private JSONTokenizer getTokenizer() throws IOException {
+        if (tokenizer == null) {
+            if (!useReader() && !useStream() && !useBuffer()) {
+                throw new IllegalStateException("Illegal JSONReader state.");
+            }
+
+            tokenizer.setSymbolTable(symbols);
+        }
+
+        return tokenizer;
+    }
+
     /**
      * Reads next available JSONType from stream.
      * @return Valid {@link JSONType} or null.
      */
     public JSONType readObject() throws IOException {
-        if (tokenizer == null) {
-            StringBuilder contents = new StringBuilder();
+        return getTokenizer().parse();
+    }
+
+    /**
+     * Reads next available JSONType from stream in parallel.
+     * @param pool {@link ForkJoinPool} used for parsing.
+     * @return Valid {@link JSONType} or null.
+     * @see JSONTokenizer#parse(ForkJoinPool)
+     */
+    public JSONType readObject(ForkJoinPool pool) throws IOException {
+        return getTokenizer().parse(pool);
+    }
+
+    /**
+     * Reads data to given handler without building {@link JSONType} nodes.
+     * @param handler {@link JSONHandler} receiving parsing events.
+     * @return true if value was found, otherwise false.
+     * @throws IOException Exception is thrown if file is unaccessible.
+     * @see JSONTokenizer#parse(JSONHandler)
+     */
+    public boolean read(JSONHandler handler) throws IOException {
+        return getTokenizer().parse(handler);
+    }
+
+    /**
+     * Reads next value of a sequence.
+     *
+     * Readers and streams are tokenized incrementally, so only the current
+     * record is held in memory. Buffers, and readers already read with
+     * {@link #readObject()}, continue from the parsed data.
+     *
+     * @return Valid {@link JSONType} or null if input has no more values.
+     * @throws IOException Exception is thrown if file is unaccessible.
+     */
+    public JSONType readNext() throws IOException {
+        if (tokenizer != null || readable instanceof ByteBuffer) {
+            return getTokenizer().parseNext();
+        }
 
-            if (!useReader(contents) && !useStream(contents)) {
+        if (streamReader == null) {
+            if (readable instanceof Reader) {
+                streamReader = createStreamReader((Reader) readable);
+            } else if (readable instanceof InputStream) {
+                streamReader = createStreamReader((InputStream) readable);
+            } else {
                 throw new IllegalStateException("Illegal JSONReader state.");
             }
 
-            tokenizer = new JSONTokenizer(contents.toString());
+            streamReader.setSequence(true);
         }
 
-        return tokenizer.parse();
+        return streamReader.readValue();
+    }
+
+    /**
+     * Gets iterator over concatenated or newline-delimited values.
+     * @return Iterator of {@link JSONType} parsed lazily one value at a time.
+     * @see #readNext
+     */
+    public Iterator<JSONType> iterator() {
+        return new Iterator<>() {
+
+            /**
+             * Stores value read ahead by hasNext.
+             */
+            private JSONType next;
+
+            /**
+             * Stores whether input is exhausted.
+             */
+            private boolean isDone;
+
+            /**
+             * @see Iterator#hasNext hasNext
+             */
+            @Override
+            public boolean hasNext() {
+                if (next == null && !isDone) {
+                    try {
+                        isDone = (next = readNext()) == null;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                return next != null;
+            }
+
+            /**
+             * @see Iterator#next next
+             */
+            @Override
+            public JSONType next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                JSONType value = next;
+                next = null;
+
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Gets stream of concatenated or newline-delimited values.
+     * @return Sequential {@link Stream} of {@link JSONType} parsed lazily.
+     * @see #readNext
+     */
+    public Stream<JSONType> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL), false);
     }
 
     /**
@@ -89,19 +464,69 @@ public class JSONReader implements AutoCloseable {
         this.readable = reader;
     }
 
+    /**
+     * Overloads default constructor.
+     *
+     * Expected length is used to size the read buffer, so for example a
+     * {@link java.io.FileReader} can be given its file length.
+     *
+     * @param reader {@link Reader} object.
+     * @param length Expected length of contents in characters, or -1 if unknown.
+     */
+    public JSONReader(Reader reader, long length) {
+        this.readable = reader;
+        this.length = length;
+    }
+
     /**
      * Overrides default contructor.
-     * @param stream {@link InputStream} object.
+     * @param stream {@link InputStream} object with UTF-8 or UTF-16 contents.
      */
     public JSONReader(InputStream stream) {
         this.readable = stream;
     }
 
+    /**
+     * Overloads default contructor.
+     * @param buffer {@link ByteBuffer} object with UTF-8 or UTF-16 contents.
+     */
+    public JSONReader(ByteBuffer buffer) {
+        this.readable = buffer;
+    }
+
+    /**
+     * Opens UTF-8 or UTF-16 encoded file for reading.
+     *
+     * Large regular files are memory mapped and parsed straight from the
+     * mapped buffer, so raw file contents are never copied to heap and
+     * repeated reads reuse the page cache. Small and non-regular files are
+     * read in bulk from a stream.
+     *
+     * @param path File path.
+     * @return New {@link JSONReader}.
+     * @throws IOException Exception is thrown if file is unaccessible.
+     */
+    public static JSONReader open(Path path) throws IOException {
+        if (Files.isRegularFile(path)) {
+            long size = Files.size(path);
+
+            if (size >= MAPPING_THRESHOLD && size <= Integer.MAX_VALUE) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    return new JSONReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+                }
+            }
+        }
+
+        return new JSONReader(Files.newInputStream(path));
+    }
+
     /**
      * @see AutoCloseable#close close
      */
     @Override
     public void close() throws Exception {
+        releaseBuffer();
+
         if (readable instanceof InputStream) {
             ((InputStream) readable).close();
         } else if (readable instanceof Reader) {
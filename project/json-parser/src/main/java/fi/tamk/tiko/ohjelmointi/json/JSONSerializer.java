@@ -0,0 +1,434 @@
+package fi.tamk.tiko.ohjelmointi.json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * Serializes JSON values into a reusable character buffer.
+ *
+ * Value trees are walked once without recursion. With a target the buffer
+ * is flushed to it whenever it fills, so serializing takes buffer sized
+ * memory regardless of document size. Without a target the buffer grows and
+ * holds the result.
+ *
+ * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+ * @version 2018.1101
+ * @since   11
+ */
+final class JSONSerializer {
+
+    /**
+     * Defines default buffer size.
+     */
+    static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Defines hexadecimal digits.
+     */
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Defines escape characters of ASCII characters.
+     *
+     * Zero marks a character written as is, {@code 'u'} marks a control
+     * character written as a unicode escape.
+     */
+    private static final char[] ESCAPES = createEscapes();
+
+    /**
+     * Stores flush target or null for in-memory output.
+     */
+    private final Appendable target;
+
+    /**
+     * Stores output buffer.
+     */
+    private char[] buffer;
+
+    /**
+     * Stores amount of buffered characters.
+     */
+    private int position;
+
+    /**
+     * Stores policy of non-finite decimals.
+     */
+    private JSONNonFinite nonFinite = JSONNonFinite.NULL;
+
+    /**
+     * Stores decimal writer, created on first decimal.
+     */
+    private JSONDecimalWriter decimals;
+
+    /**
+     * Stores open containers.
+     */
+    private Object[] containers;
+
+    /**
+     * Stores positions of next children of open containers.
+     */
+    private int[] positions;
+
+    /**
+     * Serializes value to String.
+     * @param value {@link JSONType}.
+     * @return JSON formatted String.
+     */
+    static String toString(JSONType value) {
+        try {
+            return new JSONSerializer(null, 64).write(value).toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates escape table.
+     * @return Escape characters indexed by ASCII character.
+     */
+    private static char[] createEscapes() {
+        char[] escapes = new char[128];
+
+        for (int i = 0; i < 0x20; i++) {
+            escapes[i] = 'u';
+        }
+
+        escapes['\t'] = 't';
+        escapes['\r'] = 'r';
+        escapes['\n'] = 'n';
+        escapes['\f'] = 'f';
+        escapes['\b'] = 'b';
+        escapes['"'] = '"';
+        escapes['\\'] = '\\';
+
+        return escapes;
+    }
+
+    /**
+     * Ensures buffer has room for given amount of characters.
+     * @param count Amount of characters.
+     * @throws IOException Exception is thrown if target is unaccessible.
+     */
+    void require(int count) throws IOException {
+        if (position + count > buffer.length) {
+            if (target != null) {
+                flush();
+            }
+
+            if (position + count > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + count));
+            }
+        }
+    }
+
+    /**
+     * Appends character.
+     * @param character Appended character.
+     * @return This serializer.
+     * @throws IOException Exception is thrown if target is unaccessible.
+     */
+    JSONSerializer append(char character) throws IOException {
+        if (position == buffer.length) {
+            require(1);
+        }
+
+        buffer[position++] = character;
+        return this;
+    }
+
+    /**
+     * Appends String.
+     * @param value Appended String.
+     * @return This serializer.
+     * @throws IOException Exception is thrown if target is unaccessible.
+     */
+    JSONSerializer append(String value) throws IOException {
+        return append(value, 0, value.length());
+    }
+
+    /**
+     * Appends part of String.
+     * @param value Appended String.
+     * @param start Start index (inclusive).
+     * @param end   End index (exclusive).
+     * @return This serializer.
+     * @throws IOException Exception is thrown if target is unaccessible.
+     */
+    JSONSerializer append(String value, int start, int end) throws IOException {
+        while (start < end) {
+            if (position == buffer.length) {
+                require(1);
+            }
+
+            int count = Math.min(end - start, buffer.length - position);
+            value.getChars(start, start + count, buffer, position);
+
+            position += count;
+            start += count;
+        }
+
+        return this;
+    }
+
+    /**
+     * Writes JSON value.
+     * @param value {@link JSONType} or null.
+     * @return This serializer.
+     * @throws IOException Exception is thrown if target is unaccessible.
+     */
+    JSONSerializer write(JSONType value) throws IOException {
+        int depth = writeValue(value, 0);
+
+        while (depth > 0) {
+            Object container = containers[depth - 1];
+            int index = positions[depth - 1]++;
+
+            if (container instanceof JSONArray) {
+                JSONArray array = (JSONArray) container;
+
+                if (index == array.size()) {
+                    append(']');
+                    depth--;
+                    continue;
+                } else if (index > 0) {
+                    append(',');
+                }
+
+                JSONTypes storage = array.getStorageType();
+
+                if (storage == JSONTypes.NUMBER) {
+                    writeNumber(array.getLong(index));
+                } else if (storage == JSONTypes.DECIMAL) {
+                    writeDecimal(array.getDouble(index));
+                } else {
+                    depth = writeValue(array.get(index), depth);
+                }
+            } else {
+                JSONObject object = (JSONObject) container;
+
+                if (index == object.size()) {
+                    append('}');
+                    depth--;
+                    continue;
+                } else if (index > 0) {
+                    append(',');
+                }
+
+                writeString(object.getKey(index));
+                append(':');
+                depth = writeValue(object.getValue(index), depth);
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Writes scalar value or opens container.
+     * @param value {@link JSONType} or null.
+     * @param depth Amount of open containers.
+     * @return New amount of open containers.
+     * @throws IOException Exception is thrown if target is unaccessible.
+     */
+    private int writeValue(JSONType value, int depth) throws IOException {
+        if (value == null) {
+            append("null");
+            return depth;
+        }
+
+        switch (value.getType()) {
+            case NUMBER:
+                writeNumber(value.getLong());
+                return depth;
+
+            case DECIMAL:
+                writeDecimal(value.getDouble());
+                return depth;
+
+            case BOOLEAN:
+                append(value.getBoolean() ? "true" : "false");
+                return depth;
+
+            case STRING:
+                writeString(value.getAsString());
+                return depth;
+
+            case ARRAY:
+                append('[');
+                return push(value.getAsArray(), depth);
+
+            case OBJECT:
+                append('{');
+                return push(value.getAsObject(), depth);
+        }
+
+        append("null");
+        return depth;
+    }
+
+    /**
+     * Opens container.
+     * @param container Opened {@link JSONArray} or {@link JSONObject}.
+     * @param depth     Amount of open containers.
+     * @return New amount of open containers.
+     */
+    private int push(Object container, int depth) {
+        if (containers == null) {
+            containers = new Object[16];
+            positions = new int[16];
+        } else if (depth == containers.length) {
+            containers = Arrays.copyOf(containers, depth * 2);
+            positions = Arrays.copyOf(positions, depth * 2);
+        }
+
+        containers[depth] = container;
+        positions[depth] = 0;
+
+        return depth + 1;
+    }
+
+    /**
+     * Writes JSON number.
+     * @param value Number value.
+     * @throws IOException Exception is thrown if target is unaccessible.
+     */
+    void writeNumber(long value) throws IOException {
+        require(JSONDecimalWriter.NUMBER_LENGTH);
+        position = JSONDecimalWriter.writeNumber(value, buffer, position);
+    }
+
+    /**
+     * Writes JSON decimal.
+     * @param value Decimal value.
+     * @throws IOException Exception is thrown if target is unaccessible.
+     */
+    void writeDecimal(double value) throws IOException {
+        if (!Double.isFinite(value)) {
+            switch (nonFinite) {
+                case STRING:
+                    writeString(Double.toString(value));
+                    return;
+                case ERROR:
+                    throw new JSONException("Cannot write non-finite decimal <%s>", value);
+                default:
+                    append("null");
+                    return;
+            }
+        }
+
+        if (decimals == null) {
+            decimals = new JSONDecimalWriter();
+        }
+
+        require(JSONDecimalWriter.DECIMAL_LENGTH);
+        position = decimals.writeDecimal(value, buffer, position);
+    }
+
+    /**
+     * Sets policy of non-finite decimals.
+     * @param nonFinite {@link JSONNonFinite}.
+     */
+    void setNonFinite(JSONNonFinite nonFinite) {
+        this.nonFinite = nonFinite;
+    }
+
+    /**
+     * Writes JSON string with double-quotes.
+     * @param value String value.
+     * @throws IOException Exception is thrown if target is unaccessible.
+     */
+    void writeString(String value) throws IOException {
+        writeString(value, '"');
+    }
+
+    /**
+     * Writes JSON string.
+     *
+     * Runs of characters not needing escapes are copied to the buffer in
+     * bulk, so no objects are created per character.
+     *
+     * @param value String value.
+     * @param quote Quote character.
+     * @return This serializer.
+     * @throws IOException Exception is thrown if target is unaccessible.
+     */
+    JSONSerializer writeString(String value, char quote) throws IOException {
+        final int length = value.length();
+        int start = 0;
+
+        append(quote);
+
+        for (int i = 0; i < length; i++) {
+            char character = value.charAt(i);
+
+            if (character >= ESCAPES.length || ESCAPES[character] == 0 && character != quote) {
+                continue;
+            }
+
+            char escape = character == quote ? quote : ESCAPES[character];
+
+            append(value, start, i);
+            start = i + 1;
+
+            if (escape == 'u') {
+                require(6);
+                buffer[position++] = '\\';
+                buffer[position++] = 'u';
+                buffer[position++] = '0';
+                buffer[position++] = '0';
+                buffer[position++] = DIGITS[character >> 4];
+                buffer[position++] = DIGITS[character & 0xF];
+            } else {
+                require(2);
+                buffer[position++] = '\\';
+                buffer[position++] = escape;
+            }
+        }
+
+        return append(value, start, length).append(quote);
+    }
+
+    /**
+     * Flushes buffered characters to target.
+     * @throws IOException Exception is thrown if target is unaccessible.
+     */
+    void flush() throws IOException {
+        if (target == null || position == 0) {
+            return;
+        }
+
+        if (target instanceof Writer) {
+            ((Writer) target).write(buffer, 0, position);
+        } else if (target instanceof StringBuilder) {
+            ((StringBuilder) target).append(buffer, 0, position);
+        } else {
+            target.append(CharBuffer.wrap(buffer, 0, position));
+        }
+
+        position = 0;
+    }
+
+    /**
+     * Overrides default constructor.
+     * @param target     Flush target or null for in-memory output.
+     * @param bufferSize Initial buffer size.
+     */
+    JSONSerializer(Appendable target, int bufferSize) {
+        this.target = target;
+        this.buffer = new char[Math.max(bufferSize, 16)];
+    }
+
+    /**
+     * Overrides default implementation.
+     * @return Buffered characters as String.
+     */
+    @Override
+    public String toString() {
+        return new String(buffer, 0, position);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,380 @@
+package fi.tamk.tiko.ohjelmointi.json;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Provides random access to tokenizable input data.
+ *
+ * Characters are returned as code units of the underlying data: UTF-16
+ * characters for strings and unsigned UTF-8 bytes for byte buffers. All
+ * JSON structure characters are ASCII, so both can be scanned the same way
+ * and only string contents need decoding.
+ *
+ * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+ * @version 2018.1101
+ * @since   11
+ */
+abstract class JSONSource {
+
+    /**
+     * Stores values of hexadecimal digits, -1 for other ASCII characters.
+     */
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+
+        for (int i = 0; i < 10; i++) {
+            HEX_VALUES['0' + i] = (byte) i;
+        }
+
+        for (int i = 0; i < 6; i++) {
+            HEX_VALUES['a' + i] = (byte) (10 + i);
+            HEX_VALUES['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    /**
+     * Gets value of hexadecimal digit.
+     * @param character Code unit.
+     * @return Digit value or -1 if code unit is not a hexadecimal digit.
+     */
+    static int getHexValue(int character) {
+        return character >= 0 && character < HEX_VALUES.length ? HEX_VALUES[character] : -1;
+    }
+
+    /**
+     * Gets input length.
+     * @return Amount of code units.
+     */
+    abstract int length();
+
+    /**
+     * Gets code unit at given index.
+     * @param index Index of code unit.
+     * @return Code unit value.
+     */
+    abstract int get(int index);
+
+    /**
+     * Decodes given range as String.
+     * @param start Start index (inclusive).
+     * @param end   End index (exclusive).
+     * @return Decoded String.
+     */
+    abstract String decode(int start, int end);
+
+    /**
+     * Decodes given range to builder.
+     * @param start  Start index (inclusive).
+     * @param end    End index (exclusive).
+     * @param output StringBuilder instance.
+     */
+    abstract void decode(int start, int end, StringBuilder output);
+
+    /**
+     * Creates source sharing the same data.
+     *
+     * Sources keep decoding buffers, so each thread must use its own
+     * duplicate.
+     *
+     * @return {@link JSONSource}.
+     */
+    JSONSource duplicate() {
+        return this;
+    }
+
+    /**
+     * Creates source from String.
+     * @param input String data.
+     * @return {@link JSONSource}.
+     */
+    static JSONSource of(String input) {
+        return new StringSource(input);
+    }
+
+    /**
+     * Creates source from character array.
+     * @param input Character data.
+     * @return {@link JSONSource}.
+     */
+    static JSONSource of(char[] input) {
+        return new CharArraySource(input, input.length);
+    }
+
+    /**
+     * Creates source from start of character array.
+     * @param input  Character data.
+     * @param length Length of data.
+     * @return {@link JSONSource}.
+     */
+    static JSONSource of(char[] input, int length) {
+        return new CharArraySource(input, length);
+    }
+
+    /**
+     * Creates source from UTF-8 encoded buffer.
+     *
+     * Data between buffer position and limit is used. Buffer position is
+     * not modified.
+     *
+     * @param input ByteBuffer data.
+     * @return {@link JSONSource}.
+     */
+    static JSONSource of(ByteBuffer input) {
+        return new ByteSource(input);
+    }
+
+    /**
+     * Provides access to String data.
+     *
+     * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+     * @version 2018.1101
+     * @since   11
+     */
+    private static final class StringSource extends JSONSource {
+
+        /**
+         * Stores input data.
+         */
+        private final String input;
+
+        /**
+         * Overrides default constructor.
+         * @param input String data.
+         */
+        StringSource(String input) {
+            this.input = input;
+        }
+
+        /**
+         * @see JSONSource#length
+         */
+        @Override
+        int length() {
+            return input.length();
+        }
+
+        /**
+         * @see JSONSource#get
+         */
+        @Override
+        int get(int index) {
+            return input.charAt(index);
+        }
+
+        /**
+         * @see JSONSource#decode
+         */
+        @Override
+        String decode(int start, int end) {
+            return input.substring(start, end);
+        }
+
+        /**
+         * @see JSONSource#decode
+         */
+        @Override
+        void decode(int start, int end, StringBuilder output) {
+            output.append(input, start, end);
+        }
+    }
+
+    /**
+     * Provides access to character array data.
+     *
+     * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+     * @version 2018.1101
+     * @since   11
+     */
+    private static final class CharArraySource extends JSONSource {
+
+        /**
+         * Stores input data.
+         */
+        private final char[] input;
+
+        /**
+         * Stores data length.
+         */
+        private final int length;
+
+        /**
+         * Overrides default constructor.
+         * @param input  Character data.
+         * @param length Length of data.
+         */
+        CharArraySource(char[] input, int length) {
+            this.input = input;
+            this.length = length;
+        }
+
+        /**
+         * @see JSONSource#length
+         */
+        @Override
+        int length() {
+            return length;
+        }
+
+        /**
+         * @see JSONSource#get
+         */
+        @Override
+        int get(int index) {
+            return input[index];
+        }
+
+        /**
+         * @see JSONSource#decode
+         */
+        @Override
+        String decode(int start, int end) {
+            return new String(input, start, end - start);
+        }
+
+        /**
+         * @see JSONSource#decode
+         */
+        @Override
+        void decode(int start, int end, StringBuilder output) {
+            output.append(input, start, end - start);
+        }
+    }
+
+    /**
+     * Provides access to UTF-8 encoded data.
+     *
+     * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+     * @version 2018.1101
+     * @since   11
+     */
+    private static final class ByteSource extends JSONSource {
+
+        /**
+         * Stores input data.
+         */
+        private final ByteBuffer input;
+
+        /**
+         * Stores start of data in buffer.
+         */
+        private final int base;
+
+        /**
+         * Stores data length.
+         */
+        private final int length;
+
+        /**
+         * Stores buffer used for decoding direct buffers.
+         */
+        private byte[] scratch;
+
+        /**
+         * Stores view of input used for bulk reads from direct buffers.
+         */
+        private ByteBuffer view;
+
+        /**
+         * Overrides default constructor.
+         * @param input ByteBuffer data.
+         */
+        ByteSource(ByteBuffer input) {
+            this.length = input.remaining();
+            this.base = input.position();
+            this.input = input;
+        }
+
+        /**
+         * @see JSONSource#duplicate
+         */
+        @Override
+        JSONSource duplicate() {
+            return new ByteSource(input.duplicate().position(base).limit(base + length));
+        }
+
+        /**
+         * @see JSONSource#length
+         */
+        @Override
+        int length() {
+            return length;
+        }
+
+        /**
+         * @see JSONSource#get
+         */
+        @Override
+        int get(int index) {
+            return input.get(base + index) & 0xFF;
+        }
+
+        /**
+         * @see JSONSource#decode
+         */
+        @Override
+        String decode(int start, int end) {
+            return new String(bytes(start, end), offset(start), end - start, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * @see JSONSource#decode
+         */
+        @Override
+        void decode(int start, int end, StringBuilder output) {
+            byte[] bytes = bytes(start, end);
+            int offset = offset(start);
+            int length = end - start;
+            boolean isAscii = true;
+
+            for (int i = offset; i < offset + length && isAscii; i++) {
+                isAscii = bytes[i] >= 0;
+            }
+
+            if (isAscii) {
+                for (int i = offset; i < offset + length; i++) {
+                    output.append((char) bytes[i]);
+                }
+            } else {
+                output.append(new String(bytes, offset, length, StandardCharsets.UTF_8));
+            }
+        }
+
+        /**
+         * Returns array holding given range, copying direct buffers to scratch in bulk.
+         * @param start Start index inclusive.
+         * @param end   End index exclusive.
+         * @return Backing array or scratch buffer.
+         */
+        private byte[] bytes(int start, int end) {
+            if (input.hasArray()) {
+                return input.array();
+            }
+
+            if (scratch == null || scratch.length < end - start) {
+                scratch = new byte[Math.max(end - start, 64)];
+            }
+
+            if (view == null) {
+                view = input.duplicate();
+            }
+
+            view.limit(base + end).position(base + start);
+            view.get(scratch, 0, end - start);
+
+            return scratch;
+        }
+
+        /**
+         * Returns offset of range start in array returned by {@link #bytes}.
+         * @param start Start index inclusive.
+         * @return Array offset.
+         */
+        private int offset(int start) {
+            return input.hasArray() ? input.arrayOffset() + base + start : 0;
+        }
+    }
+}
\ No newline at end of file
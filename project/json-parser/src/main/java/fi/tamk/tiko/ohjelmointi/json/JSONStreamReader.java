@@ -0,0 +1,922 @@
+package fi.tamk.tiko.ohjelmointi.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Reads JSON formatted data one token at a time.
+ *
+ * Input is tokenized from a fixed-size refillable buffer, so memory usage
+ * does not depend on document size. Buffer only grows when a single literal
+ * is longer than the buffer itself. Input must contain a single top level
+ * value like with {@link JSONTokenizer#parse()}, unless sequences of
+ * concatenated or newline-delimited values are enabled with
+ * {@link #setSequence}.
+ *
+ * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+ * @version 2018.1101
+ * @since   11
+ */
+public class JSONStreamReader implements AutoCloseable {
+
+    /**
+     * Defines default buffer size.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Defines state when value is expected.
+     */
+    private static final int EXPECT_VALUE = 0;
+
+    /**
+     * Defines state when value or end of array is expected.
+     */
+    private static final int EXPECT_FIRST_VALUE = 1;
+
+    /**
+     * Defines state when key or end of object is expected.
+     */
+    private static final int EXPECT_FIRST_KEY = 2;
+
+    /**
+     * Defines state when key is expected.
+     */
+    private static final int EXPECT_KEY = 3;
+
+    /**
+     * Defines state when key separator is expected.
+     */
+    private static final int EXPECT_COLON = 4;
+
+    /**
+     * Defines state when value separator or end of container is expected.
+     */
+    private static final int EXPECT_NEXT = 5;
+
+    /**
+     * Defines state when end of input is expected.
+     */
+    private static final int EXPECT_END = 6;
+
+    /**
+     * Stores {@link Reader}.
+     */
+    private Reader reader;
+
+    /**
+     * Stores input buffer.
+     */
+    private char[] buffer;
+
+    /**
+     * Stores current position in buffer.
+     */
+    private int position;
+
+    /**
+     * Stores amount of valid data in buffer.
+     */
+    private int limit;
+
+    /**
+     * Stores input buffer as source.
+     */
+    private JSONSource source;
+
+    /**
+     * Stores literal decoder.
+     */
+    private JSONLiteral literal;
+
+    /**
+     * Stores position which must be kept during refill or -1.
+     */
+    private int mark;
+
+    /**
+     * Stores absolute offset of buffer start.
+     */
+    private long offset;
+
+    /**
+     * Stores line number.
+     */
+    private int lineNumber;
+
+    /**
+     * Stores absolute offset of current line.
+     */
+    private long lineOffset;
+
+    /**
+     * Stores closing identifiers of open containers.
+     */
+    private char[] containers;
+
+    /**
+     * Stores amount of open containers.
+     */
+    private int depth;
+
+    /**
+     * Stores parser state.
+     */
+    private int state;
+
+    /**
+     * Stores current token.
+     */
+    private JSONTokens token;
+
+    /**
+     * Stores current token value.
+     */
+    private JSONType value;
+
+    /**
+     * Stores string contents.
+     */
+    private StringBuilder text;
+
+    /**
+     * Stores whether input may contain a sequence of top level values.
+     */
+    private boolean isSequence;
+
+    /**
+     * Sets whether input may contain a sequence of top level values.
+     *
+     * Values of a sequence may be concatenated or separated by whitespace,
+     * newlines and comments, so newline-delimited records can be read one
+     * at a time with {@link #readValue}. By default a second top level
+     * value is rejected.
+     *
+     * @param isSequence true to accept a sequence, otherwise false.
+     */
+    public void setSequence(boolean isSequence) {
+        this.isSequence = isSequence;
+
+        if (state == EXPECT_END && isSequence) {
+            state = EXPECT_VALUE;
+        }
+    }
+
+    /**
+     * Gets current token.
+     * @return {@link JSONTokens} or null.
+     */
+    public JSONTokens getToken() {
+        return token;
+    }
+
+    /**
+     * Gets current nesting depth.
+     * @return Amount of open containers.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Gets current token value.
+     * @return {@link JSONType} or null if token is not a key or value.
+     */
+    public JSONType getValue() {
+        return value;
+    }
+
+    /**
+     * Gets current key or string value.
+     * @return String.
+     */
+    public String getString() {
+        return getCurrentValue().getAsString();
+    }
+
+    /**
+     * Gets current number value.
+     * @return long.
+     */
+    public long getLong() {
+        return getCurrentValue().getAsNumber();
+    }
+
+    /**
+     * Gets current decimal or number value.
+     * @return double.
+     */
+    public double getDouble() {
+        JSONType current = getCurrentValue();
+
+        if (current.getType() == JSONTypes.NUMBER) {
+            return current.getAsNumber();
+        }
+
+        return current.getAsDecimal();
+    }
+
+    /**
+     * Gets current boolean value.
+     * @return boolean.
+     */
+    public boolean getBoolean() {
+        return getCurrentValue().getAsBoolean();
+    }
+
+    /**
+     * Gets current value or throws.
+     * @return {@link JSONType}.
+     */
+    private JSONType getCurrentValue() {
+        if (value == null) {
+            throw new IllegalStateException("Current token has no value.");
+        }
+
+        return value;
+    }
+
+    /**
+     * Reads next token.
+     * @return {@link JSONTokens} or null at end of input.
+     * @throws IOException Exception is thrown if input is unaccessible.
+     */
+    public JSONTokens nextToken() throws IOException {
+        int character = skipWhitespace();
+        value = null;
+
+        if (state == EXPECT_NEXT) {
+            char closer = containers[depth - 1];
+
+            if (character == ',') {
+                state = closer == '}' ? EXPECT_KEY : EXPECT_VALUE;
+                character = skipWhitespace();
+            } else if (character != closer) {
+                throw createMissingError(character == -1 || character == ']' || character == '}' ? closer : ',');
+            }
+        } else if (state == EXPECT_COLON) {
+            if (character != ':') {
+                throw createMissingError(':');
+            }
+
+            state = EXPECT_VALUE;
+            character = skipWhitespace();
+        } else if (state == EXPECT_END && character != -1) {
+            onError("Malformed structure - missing <EOF> at line: %d, %d", lineNumber, getColumn());
+        }
+
+        switch (character) {
+            case -1:
+                if (depth > 0) {
+                    throw createMissingError(state == EXPECT_VALUE && containers[depth - 1] == '}' ? 'v' : containers[depth - 1]);
+                }
+
+                return token = null;
+
+            case ']':
+            case '}':
+            case ',':
+            case ':':
+                if (depth > 0 && character == containers[depth - 1]) {
+                    if (state == EXPECT_NEXT || state == EXPECT_FIRST_VALUE || state == EXPECT_FIRST_KEY) {
+                        depth--;
+                        onValueEnd();
+
+                        return token = character == ']' ? JSONTokens.END_ARRAY : JSONTokens.END_OBJECT;
+                    }
+                }
+
+                if (depth == 0) {
+                    onError("Malformed identifier - missing <%c> at line: %d, %d", character, lineNumber, getColumn());
+                }
+
+                throw createMissingError(state == EXPECT_VALUE && containers[depth - 1] == '}' ? 'v' : containers[depth - 1]);
+
+            case '[':
+            case '{':
+                onValueStart();
+                pushContainer(character == '[' ? ']' : '}');
+                state = character == '[' ? EXPECT_FIRST_VALUE : EXPECT_FIRST_KEY;
+
+                return token = character == '[' ? JSONTokens.START_ARRAY : JSONTokens.START_OBJECT;
+
+            case '"':
+            case '\'':
+                if (state == EXPECT_FIRST_KEY || state == EXPECT_KEY) {
+                    value = JSONType.createString(readString((char) character));
+                    state = EXPECT_COLON;
+
+                    return token = JSONTokens.KEY;
+                }
+
+                value = JSONType.createString(readString((char) character));
+                onValueEnd();
+
+                return token = JSONTokens.STRING;
+
+            default:
+                onValueStart();
+                value = readLiteral();
+                onValueEnd();
+
+                return token = getTokenOf(value);
+        }
+    }
+
+    /**
+     * Skips value started by current token.
+     *
+     * Keys skip their value, containers are skipped up to matching end token
+     * and other tokens are left as is. Skipped containers are only scanned for
+     * nesting and are not validated.
+     *
+     * @throws IOException Exception is thrown if input is unaccessible.
+     */
+    public void skipValue() throws IOException {
+        if (token == JSONTokens.KEY) {
+            nextToken();
+        }
+
+        if (token == JSONTokens.START_ARRAY || token == JSONTokens.START_OBJECT) {
+            int previous = -1;
+            int level = 1;
+
+            while (level > 0) {
+                int character = read();
+
+                switch (character) {
+                    case -1:
+                        throw createMissingError(containers[depth - 1]);
+
+                    case '[':
+                    case '{':
+                        level++;
+                        break;
+
+                    case ']':
+                    case '}':
+                        level--;
+                        break;
+
+                    case '"':
+                    case '\'':
+                        skipString((char) character);
+                        break;
+
+                    case '#':
+                        skipLineComment();
+                        break;
+
+                    case '/':
+                        if (position < limit || fill()) {
+                            if (buffer[position] == '*') {
+                                position++;
+                                skipBlockComment();
+                            } else if (buffer[position] == '/') {
+                                skipLineComment();
+                            }
+                        }
+                        break;
+
+                    case '\r':
+                    case '\n':
+                        onNewLine(character, previous);
+                        break;
+                }
+
+                previous = character;
+            }
+
+            token = containers[--depth] == ']' ? JSONTokens.END_ARRAY : JSONTokens.END_OBJECT;
+            value = null;
+            onValueEnd();
+        }
+    }
+
+    /**
+     * Reads next value.
+     *
+     * Keys are skipped, so inside an object this reads the next member value.
+     * Inside a container null is returned when the container ends.
+     *
+     * @return {@link JSONType} or null.
+     * @throws IOException Exception is thrown if input is unaccessible.
+     */
+    public JSONType readValue() throws IOException {
+        if (nextToken() == JSONTokens.KEY) {
+            nextToken();
+        }
+
+        if (token == null || token == JSONTokens.END_ARRAY || token == JSONTokens.END_OBJECT) {
+            return null;
+        }
+
+        return readCurrentValue();
+    }
+
+    /**
+     * Reads value started by current token.
+     * @return {@link JSONType}.
+     * @throws IOException Exception is thrown if input is unaccessible.
+     */
+    JSONType readCurrentValue() throws IOException {
+        if (token != JSONTokens.START_ARRAY && token != JSONTokens.START_OBJECT) {
+            return value;
+        }
+
+        Deque<JSONType> parents = new ArrayDeque<>();
+        JSONType container = createContainer(token);
+        String key = null;
+
+        while (true) {
+            JSONType child = null;
+
+            switch (nextToken()) {
+                case KEY:
+                    key = value.getAsString();
+                    continue;
+
+                case START_ARRAY:
+                case START_OBJECT:
+                    child = createContainer(token);
+                    addValue(container, key, child);
+                    parents.push(container);
+                    container = child;
+                    continue;
+
+                case END_ARRAY:
+                case END_OBJECT:
+                    if (parents.isEmpty()) {
+                        return container;
+                    }
+
+                    container = parents.pop();
+                    continue;
+
+                default:
+                    addValue(container, key, value);
+            }
+        }
+    }
+
+    /**
+     * Checks if value is allowed in current state.
+     */
+    private void onValueStart() {
+        if (state == EXPECT_FIRST_KEY || state == EXPECT_KEY) {
+            onError("Malformed object - missing <key> at line: %d, %d", lineNumber, getColumn());
+        }
+    }
+
+    /**
+     * Updates state after a complete value.
+     */
+    private void onValueEnd() {
+        state = depth > 0 ? EXPECT_NEXT : isSequence ? EXPECT_VALUE : EXPECT_END;
+    }
+
+    /**
+     * Adds a new container.
+     * @param closer Closing identifier.
+     */
+    private void pushContainer(char closer) {
+        if (depth == containers.length) {
+            containers = Arrays.copyOf(containers, depth * 2);
+        }
+
+        containers[depth++] = closer;
+    }
+
+    /**
+     * Creates exception for missing identifier.
+     * @param identifier Identifier or 'v' for missing value.
+     * @return {@link JSONException} to throw.
+     */
+    private JSONException createMissingError(int identifier) {
+        switch (identifier) {
+            case ']':
+                return new JSONException("Malformed array - missing <]> at line: %d, %d", lineNumber, getColumn());
+
+            case '}':
+                return new JSONException("Malformed object - missing <}> at line: %d, %d", lineNumber, getColumn());
+
+            case ':':
+                return new JSONException("Malformed object - missing <:> at line: %d, %d", lineNumber, getColumn());
+
+            case 'v':
+                return new JSONException("Malformed object - missing <value> at line: %d, %d", lineNumber, getColumn());
+        }
+
+        String type = containers[depth - 1] == ']' ? "array" : "object";
+        return new JSONException("Malformed %s - missing <,> at line: %d, %d", type, lineNumber, getColumn());
+    }
+
+    /**
+     * Gets current column.
+     * @return Column number.
+     */
+    private long getColumn() {
+        return offset + position - lineOffset;
+    }
+
+    /**
+     * Updates line information.
+     * @param character Newline character.
+     * @param previous  Previous character.
+     */
+    private void onNewLine(int character, int previous) {
+        if (character == '\r' || previous != '\r') {
+            lineNumber++;
+        }
+
+        lineOffset = offset + position;
+    }
+
+    /**
+     * Reads more data into buffer.
+     * @return true if data was read, otherwise false.
+     * @throws IOException Exception is thrown if input is unaccessible.
+     */
+    private boolean fill() throws IOException {
+        int keep = mark >= 0 ? mark : position;
+
+        if (keep > 0) {
+            System.arraycopy(buffer, keep, buffer, 0, limit - keep);
+
+            offset += keep;
+            limit -= keep;
+            position -= keep;
+
+            if (mark >= 0) {
+                mark -= keep;
+            }
+        }
+
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            source = JSONSource.of(buffer);
+        }
+
+        int count;
+
+        do {
+            count = reader.read(buffer, limit, buffer.length - limit);
+        } while (count == 0);
+
+        if (count < 0) {
+            return false;
+        }
+
+        limit += count;
+        return true;
+    }
+
+    /**
+     * Reads next character.
+     * @return Character or -1.
+     * @throws IOException Exception is thrown if input is unaccessible.
+     */
+    private int read() throws IOException {
+        return position < limit || fill() ? buffer[position++] : -1;
+    }
+
+    /**
+     * Finds next valid token.
+     * @return Valid token or -1.
+     * @throws IOException Exception is thrown if input is unaccessible.
+     */
+    private int skipWhitespace() throws IOException {
+        int previous = -1;
+
+        while (position < limit || fill()) {
+            char character = buffer[position++];
+
+            switch (character) {
+                case '\r':
+                case '\n':
+                    onNewLine(character, previous);
+                    break;
+
+                case ' ':
+                case '\t':
+                    break;
+
+                case '#':
+                    skipLineComment();
+                    break;
+
+                case '/':
+                    // Mark keeps the slash in buffer while peeking past its end
+                    mark = position - 1;
+                    boolean isFilled = position < limit || fill();
+                    mark = -1;
+
+                    if (isFilled) {
+                        if (buffer[position] == '/') {
+                            skipLineComment();
+                            break;
+                        } else if (buffer[position] == '*') {
+                            position++;
+                            skipBlockComment();
+                            break;
+                        }
+                    }
+
+                    return character;
+
+                default:
+                    return character;
+            }
+
+            previous = character;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Skips line comment up to next newline.
+     * @throws IOException Exception is thrown if input is unaccessible.
+     */
+    private void skipLineComment() throws IOException {
+        while (position < limit || fill()) {
+            char character = buffer[position];
+
+            if (character == '\r' || character == '\n') {
+                return;
+            }
+
+            position++;
+        }
+    }
+
+    /**
+     * Skips block comment.
+     * @throws IOException Exception is thrown if input is unaccessible.
+     */
+    private void skipBlockComment() throws IOException {
+        int previous = -1;
+        int character;
+
+        while ((character = read()) != -1) {
+            if (character == '/' && previous == '*') {
+                return;
+            } else if (character == '\r' || character == '\n') {
+                onNewLine(character, previous);
+            }
+
+            previous = character;
+        }
+
+        onError("Malformed comment - missing <*/> at EOF");
+    }
+
+    /**
+     * Skips JSON string.
+     * @param quoteType Quote type.
+     * @throws IOException Exception is thrown if input is unaccessible.
+     */
+    private void skipString(char quoteType) throws IOException {
+        int character;
+
+        while ((character = read()) != quoteType) {
+            if (character == '\\') {
+                character = read();
+            }
+
+            if (character == -1 || character == '\r' || character == '\n') {
+                onError("Malformed string - invalid <string> at line: %d, %d", lineNumber, getColumn());
+            }
+        }
+    }
+
+    /**
+     * Reads JSON string.
+     * @param quoteType Quote type.
+     * @return String.
+     * @throws IOException Exception is thrown if input is unaccessible.
+     */
+    private String readString(char quoteType) throws IOException {
+        text.setLength(0);
+
+        while (true) {
+            int start = position;
+
+            while (position < limit) {
+                char key = buffer[position];
+
+                if (key == quoteType || key == '\\' || key == '\r' || key == '\n') {
+                    break;
+                }
+
+                position++;
+            }
+
+            text.append(buffer, start, position - start);
+
+            if (position == limit) {
+                if (!fill()) {
+                    onError("Malformed string - invalid <string> at line: %d, %d", lineNumber, getColumn());
+                }
+
+                continue;
+            }
+
+            char key = buffer[position++];
+
+            if (key == quoteType) {
+                return text.toString();
+            } else if (key == '\\') {
+                text.append(readEscape());
+            } else {
+                onError("Malformed string - illegal <newline> at line: %d, %d", lineNumber, getColumn());
+            }
+        }
+    }
+
+    /**
+     * Reads escaped character.
+     * @return Valid character.
+     * @throws IOException Exception is thrown if input is unaccessible.
+     */
+    private char readEscape() throws IOException {
+        int key = read();
+
+        switch (key) {
+            case 'r': return '\r';
+            case 'n': return '\n';
+            case 't': return '\t';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'u': return readUnicode();
+
+            case '"':
+            case '\'':
+            case '\\':
+            case '/':
+                return (char) key;
+
+            case -1:
+                onError("Malformed string - invalid <string> at line: %d, %d", lineNumber, getColumn());
+        }
+
+        throw new JSONException("Malformed string - unexpected <%c> at line: %d, %d", key, lineNumber, getColumn());
+    }
+
+    /**
+     * Reads single Unicode character.
+     * @return Valid character.
+     * @throws IOException Exception is thrown if input is unaccessible.
+     */
+    private char readUnicode() throws IOException {
+        final int UNICODE_SIZE = 4;
+        int result = 0;
+
+        for (int i = 0; i < UNICODE_SIZE; i++) {
+            int digit = JSONSource.getHexValue(read());
+
+            if (digit < 0) {
+                onError("Malformed character - invalid <unicode sequence> at line: %d, %d", lineNumber, getColumn());
+            }
+
+            result = result << 4 | digit;
+        }
+
+        return (char) result;
+    }
+
+    /**
+     * Reads JSON literal.
+     * @return Literal as JSONType.
+     * @throws IOException Exception is thrown if input is unaccessible.
+     */
+    private JSONType readLiteral() throws IOException {
+        mark = position - 1;
+
+        scan:
+        while (position < limit || fill()) {
+            switch (buffer[position]) {
+                case ',':
+                case ']':
+                case '}':
+                case ' ':
+                case '\t':
+                case '\r':
+                case '\n':
+                    break scan;
+
+                default:
+                    position++;
+            }
+        }
+
+        int start = mark;
+        mark = -1;
+
+        if (!literal.decode(source, start, position)) {
+            String value = source.decode(start, position).trim();
+            onError("Malformed literal - illegal value <%s> at line: %d, %d", value, lineNumber, getColumn());
+        }
+
+        return literal.toJSONType();
+    }
+
+    /**
+     * Overrides default constructor.
+     * @param reader {@link Reader} object.
+     */
+    public JSONStreamReader(Reader reader) {
+        this(reader, BUFFER_SIZE);
+    }
+
+    /**
+     * Overloads default constructor.
+     * @param reader     {@link Reader} object.
+     * @param bufferSize Initial buffer size.
+     */
+    public JSONStreamReader(Reader reader, int bufferSize) {
+        this.buffer = new char[Math.max(bufferSize, 16)];
+        this.source = JSONSource.of(buffer);
+        this.literal = new JSONLiteral();
+        this.containers = new char[16];
+        this.text = new StringBuilder();
+        this.reader = reader;
+
+        lineNumber = 1;
+        mark = -1;
+    }
+
+    /**
+     * Overloads default constructor.
+     * @param stream {@link InputStream} object with UTF-8 contents.
+     */
+    public JSONStreamReader(InputStream stream) {
+        this(new InputStreamReader(stream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @see AutoCloseable#close close
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Gets token of given scalar value.
+     * @param value Scalar value.
+     * @return {@link JSONTokens}.
+     */
+    private static JSONTokens getTokenOf(JSONType value) {
+        switch (value.getType()) {
+            case NUMBER: return JSONTokens.NUMBER;
+            case DECIMAL: return JSONTokens.DECIMAL;
+            case BOOLEAN: return JSONTokens.BOOLEAN;
+            case STRING: return JSONTokens.STRING;
+        }
+
+        return JSONTokens.NULL;
+    }
+
+    /**
+     * Creates empty container for given token.
+     * @param token Start token.
+     * @return {@link JSONType}.
+     */
+    private static JSONType createContainer(JSONTokens token) {
+        if (token == JSONTokens.START_ARRAY) {
+            return JSONType.createArray(new JSONArray());
+        }
+
+        return JSONType.createObject(new JSONObject());
+    }
+
+    /**
+     * Adds value to container.
+     * @param container Container value.
+     * @param key       Key identifier for objects.
+     * @param value     Value to add.
+     */
+    private static void addValue(JSONType container, String key, JSONType value) {
+        if (container.getType() == JSONTypes.ARRAY) {
+            container.getAsArray().append(value);
+        } else {
+            container.getAsObject().put(key, value);
+        }
+    }
+
+    /**
+     * Throws exception on error.
+     * @param message Message formatting.
+     * @param args    Arguments.
+     */
+    private static void onError(String message, Object... args) {
+        throw new JSONException(message, args);
+    }
+}
\ No newline at end of file
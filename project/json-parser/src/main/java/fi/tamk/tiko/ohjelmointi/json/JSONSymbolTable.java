@@ -0,0 +1,176 @@
+package fi.tamk.tiko.ohjelmointi.json;
+
+/**
+ * Stores canonical String instances for repeated keys and short values.
+ *
+ * Symbols are looked up straight from the parsed input using the same hash
+ * as {@link String#hashCode}, so repeated keys are neither decoded nor
+ * allocated again. Only ASCII symbols are stored and the table stops
+ * growing at a fixed size. A table may be shared between parsers, but is
+ * not thread-safe.
+ *
+ * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+ * @version 2018.1101
+ * @since   11
+ */
+public class JSONSymbolTable {
+
+    /**
+     * Defines maximum length of stored keys.
+     */
+    public static final int MAX_KEY_LENGTH = 64;
+
+    /**
+     * Defines maximum length of stored values.
+     */
+    public static final int MAX_VALUE_LENGTH = 16;
+
+    /**
+     * Defines maximum amount of stored symbols.
+     */
+    private static final int MAX_SIZE = 1 << 16;
+
+    /**
+     * Stores symbols.
+     */
+    private String[] symbols;
+
+    /**
+     * Stores hashes of symbols.
+     */
+    private int[] hashes;
+
+    /**
+     * Stores amount of symbols.
+     */
+    private int size;
+
+    /**
+     * Gets amount of stored symbols.
+     * @return Amount of symbols.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets canonical instance of given value.
+     * @param value String value.
+     * @return Stored instance or given value if it can't be stored.
+     */
+    public String intern(String value) {
+        String symbol = lookup(JSONSource.of(value), 0, value.length());
+        return symbol != null ? symbol : value;
+    }
+
+    /**
+     * Gets canonical instance of given input range.
+     * @param input Input data.
+     * @param start Start index (inclusive).
+     * @param end   End index (exclusive).
+     * @return Stored instance or null if range contains non-ASCII data.
+     */
+    String lookup(JSONSource input, int start, int end) {
+        int hash = 0;
+
+        for (int i = start; i < end; i++) {
+            int character = input.get(i);
+
+            if (character >= 0x80) {
+                return null;
+            }
+
+            hash = 31 * hash + character;
+        }
+
+        int mask = symbols.length - 1;
+        int index = (hash ^ hash >>> 16) & mask;
+
+        while (symbols[index] != null) {
+            if (hashes[index] == hash && equals(symbols[index], input, start, end)) {
+                return symbols[index];
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        String symbol = input.decode(start, end);
+
+        if (size < MAX_SIZE) {
+            symbols[index] = symbol;
+            hashes[index] = hash;
+
+            if (++size * 2 > symbols.length) {
+                resize();
+            }
+        }
+
+        return symbol;
+    }
+
+    /**
+     * Compares symbol against input range.
+     * @param symbol Stored symbol.
+     * @param input  Input data.
+     * @param start  Start index (inclusive).
+     * @param end    End index (exclusive).
+     * @return true if contents are equal, otherwise false.
+     */
+    private static boolean equals(String symbol, JSONSource input, int start, int end) {
+        if (symbol.length() != end - start) {
+            return false;
+        }
+
+        for (int i = start; i < end; i++) {
+            if (symbol.charAt(i - start) != input.get(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Doubles table capacity.
+     */
+    private void resize() {
+        String[] oldSymbols = symbols;
+        int[] oldHashes = hashes;
+
+        symbols = new String[oldSymbols.length * 2];
+        hashes = new int[oldHashes.length * 2];
+
+        int mask = symbols.length - 1;
+
+        for (int i = 0; i < oldSymbols.length; i++) {
+            if (oldSymbols[i] != null) {
+                int index = (oldHashes[i] ^ oldHashes[i] >>> 16) & mask;
+
+                while (symbols[index] != null) {
+                    index = (index + 1) & mask;
+                }
+
+                symbols[index] = oldSymbols[i];
+                hashes[index] = oldHashes[i];
+            }
+        }
+    }
+
+    /**
+     * Overrides default constructor.
+     */
+    public JSONSymbolTable() {
+        this(64);
+    }
+
+    /**
+     * Overloads default constructor.
+     * @param capacity Expected amount of symbols.
+     */
+    public JSONSymbolTable(int capacity) {
+        int length = Integer.highestOneBit(Math.max(8, Math.min(capacity, MAX_SIZE)) * 2 - 1) * 2;
+
+        symbols = new String[length];
+        hashes = new int[length];
+    }
+}
\ No newline at end of file
@@ -1,7 +1,14 @@
 package fi.tamk.tiko.ohjelmointi.json;
 
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.Stack;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * Tokenizes JSON formatted data.
@@ -12,6 +19,11 @@ import java.util.Stack;
  */
 public class JSONTokenizer {
 
+    /**
+     * Defines minimum input size for parallel parsing.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 20;
+
     /**
      * Stores current position.
      */
@@ -20,86 +32,122 @@ public class JSONTokenizer {
     /**
      * Stores input data.
      */
-    private String input;
+    private JSONSource input;
 
     /**
-     * Stores line number.
+     * Stores expected identifiers of open containers.
      */
-    private int lineNumber;
+    private byte[] identifiers;
 
     /**
-     * Stores line index.
+     * Stores positions of open containers.
      */
-    private int lineIndex;
+    private int[] identifierPositions;
 
     /**
-     * Stores special identifiers.
+     * Stores amount of open containers.
      */
-    private Stack<JSONIdentifier> identifiers;
+    private int depth;
 
     /**
-     * Adds a new identifier.
+     * Stores literal decoder.
+     */
+    private JSONLiteral literal;
+
+    /**
+     * Stores buffer for strings containing escapes.
+     */
+    private StringBuilder text;
+
+    /**
+     * Stores optional symbol table.
+     */
+    private JSONSymbolTable symbols;
+
+    /**
+     * Stores handler building trees of parsed values.
+     */
+    private TreeHandler tree;
+
+    /**
+     * Stores builder passing parsed values to the tree handler.
+     */
+    private HandlerBuilder treeBuilder;
+
+    /**
+     * Sets symbol table used for keys and short values.
+     *
+     * Repeated keys and short values of parsed documents then share the
+     * same String instances.
+     *
+     * @param symbols {@link JSONSymbolTable} or null.
+     */
+    public void setSymbolTable(JSONSymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * Adds a new identifier at current position.
+     *
+     * Only the identifier and its position are stored, the exception is
+     * created when the identifier is found missing.
+     *
      * @param identifier Identifier value.
      * @see Character
      */
-    public void pushIdentifier(char identifier, String message, Object... args) {
-        identifiers.push(new JSONIdentifier(identifier, message, args));
+    public void pushIdentifier(char identifier) {
+        if (depth == identifiers.length) {
+            identifiers = Arrays.copyOf(identifiers, depth * 2);
+            identifierPositions = Arrays.copyOf(identifierPositions, depth * 2);
+        }
+
+        identifiers[depth] = (byte) identifier;
+        identifierPositions[depth] = position;
+        depth++;
     }
 
     /**
      * Removes given identifier.
      * @param identifier Identifier value.
-     * @param forceThrow
+     * @param forceThrow Throw even if identifier matches.
      */
     public void popIdentifier(char identifier, boolean forceThrow) {
-        JSONException exception = null;
+        onError(depth == 0, "Malformed identifier - missing <%c> at line: %d, %d", identifier);
 
-        if (!identifiers.empty()) {
-            JSONIdentifier lastIdentifier = identifiers.pop();
+        depth--;
 
-            if (!forceThrow && identifier == lastIdentifier.getIdentifier()) {
-                return;
-            }
-
-            exception = lastIdentifier.getException();
+        if (forceThrow || identifier != identifiers[depth]) {
+            throw createException(identifiers[depth], identifierPositions[depth]);
         }
-
-        onError(exception == null, "Malformed identifier - missing <%c> at line: %d, %d", identifier, lineNumber, lineIndex);
-        throw exception;
     }
 
     /**
-     * Skips comments.
-     * @param character Character token.
-     * @param mode      Previous mode.
-     * @return true if comment was found, otherwise false.
+     * Creates exception for missing identifier.
+     * @param identifier Identifier value.
+     * @param offset     Position of identifier.
+     * @return {@link JSONException}.
      */
-    private boolean skipComment(int character, AtomicBoolean mode) {
-        if (!mode.get() && character == '/') {
-            if (position < input.length()) {
-                switch (input.charAt(position)) {
-                    case '*':
-                        int endIndex = input.indexOf("*/", ++position);
-                        onError(endIndex == -1, "Malformed comment - missing <*/> at EOF");
-                        String substring = input.substring(position, endIndex);
-                        position = endIndex + 2;
-
-                        lineNumber += substring.replaceAll("[^\n]", "").length();
-                        lineIndex = position - substring.lastIndexOf("\n");
+    private JSONException createException(byte identifier, int offset) {
+        switch (identifier) {
+            case ']': return createException(offset, "Malformed array - missing <]> at line: %d, %d");
+            case '}': return createException(offset, "Malformed object - missing <}> at line: %d, %d");
+        }
 
-                        return true;
+        return createException(offset, "Malformed identifier - missing <%c> at line: %d, %d", (char) identifier);
+    }
 
-                    case '/':
-                        mode.set(true);
-                        return true;
-                }
-            }
+    /**
+     * Skips block comment.
+     */
+    private void skipBlockComment() {
+        int endIndex = ++position;
 
-            return false;
+        while (endIndex + 1 < input.length() && (input.get(endIndex) != '*' || input.get(endIndex + 1) != '/')) {
+            endIndex++;
         }
 
-        mode.set(true);
-        return true;
+        onError(endIndex + 1 >= input.length(), "Malformed comment - missing <*/> at EOF");
+        position = endIndex + 2;
     }
 
     /**
@@ -107,19 +155,15 @@ public class JSONTokenizer {
      * @return Valid token or -1.
      */
     private int skipWhitespace() {
-        AtomicBoolean isComment = new AtomicBoolean();
+        boolean isComment = false;
 
         while (position < input.length()) {
-            int character = input.charAt(position++);
-
-            lineIndex++;
+            int character = input.get(position++);
 
             switch (character) {
-                case '\r':
                 case '\n':
-                    isComment.set(false);
-                    lineIndex = 0;
-                    lineNumber++;
+                case '\r':
+                    isComment = false;
                     continue;
 
                 case ' ':
@@ -127,13 +171,24 @@ public class JSONTokenizer {
                     continue;
 
                 case '#':
+                    isComment = true;
+                    continue;
+
                 case '/':
-                    if (skipComment(character, isComment)) {
-                        continue;
+                    if (!isComment && position < input.length()) {
+                        switch (input.get(position)) {
+                            case '*':
+                                skipBlockComment();
+                                continue;
+
+                            case '/':
+                                isComment = true;
+                                continue;
+                        }
                     }
             }
 
-            if (!isComment.get()) {
+            if (!isComment) {
                 return character;
             }
         }
@@ -143,309 +198,626 @@ public class JSONTokenizer {
 
     /**
      * Parses single Unicode character.
+     *
+     * Surrogate pairs are written as two escapes and decode to the two
+     * UTF-16 code units of the pair.
+     *
      * @return Valid character.
      */
     private char parseUnicode() {
         final int UNICODE_SIZE = 4;
-        int endIndex = position + UNICODE_SIZE;
+        int result = 0;
 
-        if (endIndex <= input.length()) {
-            String value = input.substring(position, endIndex).toLowerCase();
+        if (position + UNICODE_SIZE <= input.length()) {
+            for (int i = 0; i < UNICODE_SIZE && result >= 0; i++) {
+                int digit = JSONSource.getHexValue(input.get(position + i));
+                result = digit < 0 ? -1 : result << 4 | digit;
+            }
 
-            if (value.matches("^[\\da-f]+$")) {
-                int result = 0;
+            if (result >= 0) {
+                position += UNICODE_SIZE;
+                return (char) result;
+            }
+        }
 
-                for (int i = 0; i < value.length(); i++) {
-                    char key = value.charAt(i);
-                    result *= 16;
+        throw createException(position, "Malformed character - invalid <unicode sequence> at line: %d, %d");
+    }
 
-                    if (key >= 'a' && key <= 'f') {
-                        result += 10 + (key - 'a');
-                    } else {
-                        result += key - '0';
-                    }
+    /**
+     * Parses escaped character.
+     * @return Valid character.
+     */
+    private char parseEscape() {
+        onError(position == input.length(), "Malformed string - invalid <string> at line: %d, %d");
+        char key = (char) input.get(position++);
+
+        switch (key) {
+            case 'r': return '\r';
+            case 'n': return '\n';
+            case 't': return '\t';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'u': return parseUnicode();
+
+            case '"':
+            case '\'':
+            case '\\':
+            case '/':
+                return key;
+        }
 
-                    lineIndex++;
-                    position++;
-                }
+        throw createException(position, "Malformed string - unexpected <%c> at line: %d, %d", key);
+    }
 
-                return (char) result;
+    /**
+     * Parses JSON literal to literal decoder.
+     * @return Start of literal.
+     */
+    private int parseLiteral() {
+        int startPosition = --position;
+
+        scan:
+        while (position < input.length()) {
+            switch (input.get(position)) {
+                case ',':
+                case ']':
+                case '}':
+                case ' ':
+                case '\t':
+                case '\r':
+                case '\n':
+                    break scan;
+
+                default:
+                    position++;
             }
         }
 
-        throw new JSONException("Malformed character - invalid <unicode sequence> at line: %d, %d", lineNumber, lineIndex);
+        if (!literal.decode(input, startPosition, position)) {
+            String value = input.decode(startPosition, position).trim();
+            onError("Malformed literal - illegal value <%s> at line: %d, %d", value);
+        }
+
+        return startPosition;
     }
 
     /**
-     * Validates given literal.
-     * @param literal Literal value.
-     * @return Literal as JSONType.
+     * Skips JSON string after validating it.
+     * @param quoteType Quote type.
+     * @return true if string contains escapes, otherwise false.
      */
-    private JSONType getValidatedLiteral(String literal) {
-        if (literal != null && !literal.isEmpty()) {
-            if (literal.matches("^[+\\-]?(?:0|[1-9]\\d*)$")) {
-                return JSONType.createNumber(Long.parseLong(literal));
-            } else if (literal.matches("^[+\\-]?(?:0|[1-9]\\d*)(?:\\.\\d*)?(?:[eE][+\\-]?\\d+)?$")) {
-                return JSONType.createDecimal(Double.parseDouble(literal));
-            } else if (literal.matches("^(?i:(true|false))$")) {
-                return JSONType.createBoolean(Boolean.parseBoolean(literal));
-            } else if (literal.equalsIgnoreCase("null")) {
-                return JSONType.createNull();
+    private boolean skipString(char quoteType) {
+        boolean isEscaped = false;
+
+        while (position < input.length()) {
+            int key = input.get(position++);
+
+            if (key == quoteType) {
+                return isEscaped;
+            } else if (key == '\\') {
+                isEscaped = true;
+                parseEscape();
+            } else {
+                onError(key == '\r' || key == '\n', "Malformed string - illegal <newline> at line: %d, %d");
             }
         }
 
-        throw new JSONException("Malformed literal - illegal value <%s> at line: %d, %d", literal, lineNumber, lineIndex);
+        throw createException(position, "Malformed string - invalid <string> at line: %d, %d");
     }
 
     /**
-     * Parses JSON array.
-     * @return JSONType.
+     * Decodes validated JSON string contents.
+     *
+     * Strings without escapes are decoded with a single slice copy. Runs
+     * between escapes are copied in bulk.
+     *
+     * @param start     Start of contents (inclusive).
+     * @param end       End of contents (exclusive).
+     * @param isEscaped Contents contain escapes.
+     * @param maxSymbol Maximum length for symbol table lookup.
+     * @return Decoded String.
      */
-    private JSONType parseArray() {
-        pushIdentifier(']', "Malformed array - missing <]> at line: %d, %d", lineNumber, lineIndex);
+    String decodeString(int start, int end, boolean isEscaped, int maxSymbol) {
+        if (!isEscaped) {
+            String value = null;
+
+            if (symbols != null && end - start <= maxSymbol) {
+                value = symbols.lookup(input, start, end);
+            }
+
+            return value != null ? value : input.decode(start, end);
+        }
+
+        int storedPosition = position;
+        text.setLength(0);
+        position = start;
 
-        JSONArray array = new JSONArray();
-        JSONType value = null;
+        while (position < end) {
+            int escape = position;
 
-        while ((value = parseToken(false)) != null) {
-            if (hasNext()) {
-                pushIdentifier(',', "Malformed array - missing <,> at line: %d, %d", lineNumber, lineIndex);
+            while (escape < end && input.get(escape) != '\\') {
+                escape++;
             }
 
-            array.add(value);
+            input.decode(position, escape, text);
+            position = escape;
+
+            if (position < end) {
+                position++;
+                text.append(parseEscape());
+            }
         }
 
-        return JSONType.createArray(array);
+        position = storedPosition;
+        return text.toString();
     }
 
     /**
-     * Parses JSON object.
-     * @return JSONType.
+     * Parses JSON object key and the following colon.
+     * @param token   First token of key.
+     * @param builder Receiver of key.
      */
-    private JSONType parseObject() {
-        pushIdentifier('}', "Malformed object - missing <}> at line: %d, %d", lineNumber, lineIndex);
+    private void parseKey(int token, Builder builder) {
+        if (token != '"' && token != '\'') {
+            onError(token != -1, "Malformed object - missing <key> at line: %d, %d");
+            popIdentifier('_', true);
+        }
 
-        JSONObject object = new JSONObject();
-        JSONType value = null;
-        String key = null;
+        int start = position;
+        boolean isEscaped = skipString((char) token);
+        builder.key(start, position - 1, isEscaped);
 
-        while ((value = parseToken(false)) != null) {
-            if (key == null) {
-                try {
-                    key = value.getAsString();
-                    pushIdentifier(':', "Malformed object - missing <:> at line: %d, %d", lineNumber, lineIndex);
+        onError(skipWhitespace() != ':', "Malformed object - missing <:> at line: %d, %d");
+    }
 
-                    continue;
-                } catch (ClassCastException e) {
-                    onError("Malformed object - missing <key> at line: %d, %d", lineNumber, lineIndex);
+    /**
+     * Parses JSON value starting with given token.
+     *
+     * Containers are kept in an explicit stack instead of recursing, so
+     * nesting depth is limited only by available memory. Every character
+     * is scanned once since separators are consumed as they are found.
+     * Values are passed to the builder as positions of the input.
+     *
+     * @param token   First token of value.
+     * @param builder Receiver of values.
+     */
+    private void parseValue(int token, Builder builder) {
+        depth = 0;
+
+        while (true) {
+            switch (token) {
+                case '[':
+                    pushIdentifier(']');
+                    builder.startArray(position - 1);
+                    token = skipWhitespace();
+
+                    if (token != ']') {
+                        continue;
+                    }
+
+                    popIdentifier(']', false);
+                    builder.endArray(position);
+                    break;
+
+                case '{':
+                    pushIdentifier('}');
+                    builder.startObject(position - 1);
+                    token = skipWhitespace();
+
+                    if (token != '}') {
+                        parseKey(token, builder);
+                        token = skipWhitespace();
+                        continue;
+                    }
+
+                    popIdentifier('}', false);
+                    builder.endObject(position);
+                    break;
+
+                case '"':
+                case '\'':
+                    int start = position;
+                    boolean isEscaped = skipString((char) token);
+                    builder.string(start, position - 1, isEscaped);
+                    break;
+
+                case -1:
+                case ',':
+                case ':':
+                case ']':
+                case '}':
+                    onError(depth > 0 && identifiers[depth - 1] == '}', "Malformed object - missing <value> at line: %d, %d");
+
+                    popIdentifier(token == -1 ? '_' : (char) token, true);
+                    break;
+
+                default:
+                    builder.literal(parseLiteral(), position, literal);
+            }
+
+            while (depth > 0) {
+                boolean isObject = identifiers[depth - 1] == '}';
+                token = skipWhitespace();
+
+                if (token == ',') {
+                    break;
                 }
+
+                switch (token) {
+                    case -1:
+                    case ']':
+                    case '}':
+                        popIdentifier(token == -1 ? '_' : (char) token, token == -1);
+
+                        if (isObject) {
+                            builder.endObject(position);
+                        } else {
+                            builder.endArray(position);
+                        }
+
+                        continue;
+                }
+
+                onError(isObject, "Malformed object - missing <,> at line: %d, %d");
+                onError("Malformed array - missing <,> at line: %d, %d");
+            }
+
+            if (depth == 0) {
+                return;
             }
 
-            if (hasNext()) {
-                pushIdentifier(',', "Malformed object - missing <,> at line: %d, %d", lineNumber, lineIndex);
+            token = skipWhitespace();
+
+            if (identifiers[depth - 1] == '}') {
+                parseKey(token, builder);
+                token = skipWhitespace();
             }
+        }
+    }
+
+    /**
+     * Parses next JSON value to given builder.
+     * @param builder Receiver of values.
+     * @return true if value was found, otherwise false.
+     */
+    boolean parse(Builder builder) {
+        if (!parseNext(builder)) {
+            return false;
+        }
+
+        onError(skipWhitespace() != -1, "Malformed structure - missing <EOF> at line: %d, %d");
+
+        return true;
+    }
+
+    /**
+     * Parses next JSON value of a sequence to given builder.
+     * @param builder Receiver of values.
+     * @return true if value was found, otherwise false.
+     */
+    boolean parseNext(Builder builder) {
+        int token = skipWhitespace();
 
-            object.put(key, value);
-            key = null;
+        if (token == -1) {
+            return false;
         }
 
-        onError(key != null, "Malformed object - missing <value> at line: %d, %d", lineNumber, lineIndex);
-        return JSONType.createObject(object);
+        parseValue(token, builder);
+
+        return true;
     }
 
     /**
-     * Parses JSON literal.
+     * Parses JSON data.
      * @return JSONType.
      */
-    private JSONType parseLiteral() {
-        int startPosition = --position;
-        String value = null;
+    public JSONType parse() {
+        tree.reset();
+        return parse(treeBuilder) ? tree.getResult() : null;
+    }
 
-        do {
-            if (position < input.length()) {
-                switch (input.charAt(position)) {
-                    case ',':
-                    case ']':
-                    case '}':
-                    case ' ':
-                    case '\t':
-                    case '\r':
-                    case '\n':
-                        value = input.substring(startPosition, position);
-                        break;
-
-                    default:
-                        lineIndex++;
-                        position++;
-                }
-            } else {
-                value = input.substring(startPosition);
-            }
-        } while (value == null);
+    /**
+     * Parses next JSON value of a sequence.
+     *
+     * Values may be concatenated or separated by whitespace, newlines and
+     * comments, so newline-delimited records are read one at a time.
+     * Containers left open by a failed record are discarded.
+     *
+     * @return JSONType or null if input has no more values.
+     */
+    public JSONType parseNext() {
+        tree.reset();
+        return parseNext(treeBuilder) ? tree.getResult() : null;
+    }
 
-        return getValidatedLiteral(value.trim());
+    /**
+     * Parses JSON data to given handler.
+     *
+     * Events are pushed to the handler without building {@link JSONType}
+     * nodes. Input is validated as with {@link #parse()}.
+     *
+     * @param handler {@link JSONHandler} receiving parsing events.
+     * @return true if value was found, otherwise false.
+     */
+    public boolean parse(JSONHandler handler) {
+        return parse(new HandlerBuilder(handler));
     }
 
     /**
-     * Parses JSON string.
-     * @param quoteType Quote type.
+     * Parses next JSON value of a sequence to given handler.
+     * @param handler {@link JSONHandler} receiving parsing events.
+     * @return true if value was found, otherwise false.
+     * @see #parseNext()
+     */
+    public boolean parseNext(JSONHandler handler) {
+        return parseNext(new HandlerBuilder(handler));
+    }
+
+    /**
+     * Parses JSON data using given pool for large top level arrays.
+     *
+     * Element boundaries of a top level array are found with a quick
+     * structural scan and ranges of elements are parsed in parallel. Each
+     * range must end at the separator found by the scan, so results match
+     * the sequential parser. On any error the data is parsed again
+     * sequentially to report the same exception. Symbol table, if any, is
+     * replaced by a table per range.
+     *
+     * @param pool {@link ForkJoinPool} used for parsing.
      * @return JSONType.
      */
-    private JSONType parseString(char quoteType) {
-        StringBuilder output = new StringBuilder();
-        boolean escapeString = false;
-        JSONType value = null;
-
-        while (value == null && position < input.length()) {
-            char key = input.charAt(position++);
-            onError(key == '\r' || key == '\n', "Malformed string - illegal <newline> at line: %d, %d", lineNumber, lineIndex);
-
-            if (escapeString) {
-                escapeString = false;
-
-                switch (key) {
-                    case 'r': key = '\r'; break;
-                    case 'n': key = '\n'; break;
-                    case 't': key = '\t'; break;
-                    case 'b': key = '\b'; break;
-                    case 'f': key = '\f'; break;
-                    case 'u': key = parseUnicode(); break;
-
-                    case '"':
-                    case '\'':
-                    case '\\':
-                    case '/':
-                        break;
-
-                    default:
-                        onError("Malformed string - unexpected <%c> at line: %d, %d", key, lineNumber, lineIndex);
-                }
+    public JSONType parse(ForkJoinPool pool) {
+        int startPosition = position;
+        int token = skipWhitespace();
 
-                output.append(key);
-            } else if (key == quoteType) {
-                value = JSONType.createString(output.toString());
-            } else if (key == '\\') {
-                escapeString = true;
-            } else {
-                output.append(key);
+        if (token != '[' || input.length() - position < PARALLEL_THRESHOLD || pool.getParallelism() < 2) {
+            position = startPosition;
+            return parse();
+        }
+
+        int[] boundaries = scanElements(position, (input.length() - position) / (pool.getParallelism() * 4));
+
+        if (boundaries != null) {
+            List<ForkJoinTask<List<JSONType>>> tasks = new ArrayList<>();
+
+            for (int i = 1; i < boundaries.length; i++) {
+                int start = boundaries[i - 1] + 1;
+                int end = boundaries[i];
+
+                tasks.add(pool.submit(() -> createRange().parseElements(start, end)));
             }
 
-            lineIndex++;
+            try {
+                JSONArray array = new JSONArray();
+
+                for (ForkJoinTask<List<JSONType>> task : tasks) {
+                    for (JSONType value : task.join()) {
+                        array.append(value);
+                    }
+                }
+
+                position = boundaries[boundaries.length - 1] + 1;
+                onError(skipWhitespace() != -1, "Malformed structure - missing <EOF> at line: %d, %d");
+
+                return JSONType.createArray(array);
+            } catch (RuntimeException e) {
+                tasks.forEach(task -> task.cancel(false));
+            }
         }
 
-        onError(value == null, "Malformed string - invalid <string> at line: %d, %d", lineNumber, lineIndex);
+        position = startPosition;
+        return parse();
+    }
+
+    /**
+     * Creates tokenizer for parsing a range of this input.
+     * @return {@link JSONTokenizer}.
+     */
+    private JSONTokenizer createRange() {
+        JSONTokenizer tokenizer = new JSONTokenizer(input.duplicate());
+
+        if (symbols != null) {
+            tokenizer.setSymbolTable(new JSONSymbolTable());
+        }
 
-        return value;
+        return tokenizer;
     }
 
     /**
-     * Checks if next token exists.
-     * @return true if next token is found, otherwise false.
+     * Parses elements of top level array between separators.
+     *
+     * Elements are returned in a plain list, so they are attached only to
+     * the resulting array.
+     *
+     * @param start Position after opening bracket or separator.
+     * @param end   Position of separator or closing bracket ending the range.
+     * @return Elements as {@link List}.
      */
-    private boolean hasNext() {
-        int storedPosition = position;
-        int token = skipWhitespace();
-        boolean hasNext = false;
+    private List<JSONType> parseElements(int start, int end) {
+        List<JSONType> values = new ArrayList<>();
+        position = start;
 
-        switch (token) {
-            case ',':
-                hasNext = hasNext();
+        do {
+            parseValue(skipWhitespace(), treeBuilder);
+            values.add(tree.getResult());
 
-            case -1:
-            case ']':
-            case '}':
-                break;
+            onError(skipWhitespace() != ',' && position - 1 != end, "Malformed array - missing <,> at line: %d, %d");
+        } while (position - 1 < end);
 
-            default:
-                hasNext = true;
-        }
+        onError(position - 1 != end, "Malformed array - missing <,> at line: %d, %d");
 
-        position = storedPosition;
-        return hasNext;
+        return values;
     }
 
     /**
-     * Parses next token.
-     * @param topLevel Top level element.
-     * @return JSONType.
+     * Scans boundaries of top level array elements.
+     *
+     * Only nesting, strings and comments are considered. Elements are
+     * grouped to ranges of at least given size.
+     *
+     * @param start     Position after opening bracket.
+     * @param rangeSize Minimum size of range.
+     * @return Positions of opening bracket, separators between ranges and
+     *         closing bracket, or null if the array has a single range.
      */
-    private JSONType parseToken(boolean topLevel) {
-        int token = skipWhitespace();
-        JSONType value = null;
+    private int[] scanElements(int start, int rangeSize) {
+        int[] boundaries = new int[16];
+        int count = 0;
+        int level = 1;
 
-        if (token != -1) {
-            switch (token) {
+        boundaries[count++] = start - 1;
+
+        for (int i = start; i < input.length(); i++) {
+            switch (input.get(i)) {
                 case '[':
-                    value = parseArray();
+                case '{':
+                    level++;
                     break;
 
-                case '{':
-                    value = parseObject();
+                case '}':
+                    level--;
+                    break;
+
+                case ']':
+                    if (--level == 0) {
+                        if (count == 1) {
+                            return null;
+                        }
+
+                        boundaries = Arrays.copyOf(boundaries, count + 1);
+                        boundaries[count] = i;
+
+                        return boundaries;
+                    }
+                    break;
+
+                case ',':
+                    if (level == 1 && i - boundaries[count - 1] >= rangeSize) {
+                        if (count == boundaries.length) {
+                            boundaries = Arrays.copyOf(boundaries, count * 2);
+                        }
+
+                        boundaries[count++] = i;
+                    }
                     break;
 
                 case '"':
                 case '\'':
-                    value = parseString((char) token);
-                    break;
+                    int quoteType = input.get(i);
 
-                default:
-                    value = parseLiteral();
+                    while (++i < input.length() && input.get(i) != quoteType) {
+                        i += input.get(i) == '\\' ? 1 : 0;
+                    }
                     break;
 
-                case ',':
-                case ':':
-                case ']':
-                case '}':
-                    popIdentifier((char) token, false);
+                case '#':
+                    while (i + 1 < input.length() && input.get(i + 1) != '\n' && input.get(i + 1) != '\r') {
+                        i++;
+                    }
+                    break;
 
-                    if (token == ',' || token == ':') {
-                        value = parseToken(topLevel);
+                case '/':
+                    if (i + 1 < input.length() && input.get(i + 1) == '/') {
+                        while (i + 1 < input.length() && input.get(i + 1) != '\n' && input.get(i + 1) != '\r') {
+                            i++;
+                        }
+                    } else if (i + 1 < input.length() && input.get(i + 1) == '*') {
+                        for (i += 2; i + 1 < input.length() && (input.get(i) != '*' || input.get(i + 1) != '/'); i++) {
+                        }
+
+                        i++;
                     }
+                    break;
             }
-
-            onError(
-                topLevel && value != null && skipWhitespace() != -1,
-                "Malformed structure - missing <EOF> at line: %d, %d", lineNumber, lineIndex
-            );
         }
 
-        return value;
+        return null;
     }
 
     /**
-     * Parses JSON data.
-     * @return JSONType.
+     * Overrides default constructor.
+     * @param stream Parseable string.
      */
-    public JSONType parse() {
-        JSONType value = parseToken(true);
+    public JSONTokenizer(String stream) {
+        this(JSONSource.of(stream));
+    }
 
-        if (!identifiers.empty()) {
-            popIdentifier('_', true);
-        }
+    /**
+     * Overloads default constructor.
+     * @param stream Parseable UTF-8 encoded data.
+     */
+    public JSONTokenizer(byte[] stream) {
+        this(ByteBuffer.wrap(stream));
+    }
 
-        return value;
+    /**
+     * Overloads default constructor.
+     *
+     * Data between buffer position and limit is parsed as UTF-8 without
+     * decoding it first. Only returned strings are decoded.
+     *
+     * @param stream Parseable UTF-8 encoded data.
+     */
+    public JSONTokenizer(ByteBuffer stream) {
+        this(JSONSource.of(stream));
     }
 
     /**
-     * Overrides default constructor.
-     * @param stream Parseable string.
+     * Overloads default constructor.
+     * @param source Parseable source.
      */
-    public JSONTokenizer(String stream) {
-        input = stream.replaceAll("\r\n?", "\n");
-        identifiers = new Stack<>();
+    JSONTokenizer(JSONSource source) {
+        identifiers = new byte[16];
+        identifierPositions = new int[16];
+        tree = new TreeHandler();
+        treeBuilder = new HandlerBuilder(tree);
+        literal = new JSONLiteral();
+        text = new StringBuilder();
+        input = source;
 
-        lineNumber = 1;
-        lineIndex = 0;
         position = 0;
     }
 
+    /**
+     * Creates exception at given position.
+     *
+     * Line and column are not tracked while scanning, they are computed
+     * from the start of input only when an exception is created and
+     * appended to the arguments. CR, LF and CRLF each end a line.
+     *
+     * @param offset  Position in input.
+     * @param message Message formatting.
+     * @param args    Arguments.
+     * @return {@link JSONException}.
+     */
+    private JSONException createException(int offset, String message, Object... args) {
+        int end = Math.min(offset, input.length());
+        int lineNumber = 1;
+        int lineStart = 0;
+
+        for (int i = 0; i < end; i++) {
+            int character = input.get(i);
+
+            if (character == '\n' || character == '\r' && (i + 1 == input.length() || input.get(i + 1) != '\n')) {
+                lineStart = i + 1;
+                lineNumber++;
+            }
+        }
+
+        Object[] values = Arrays.copyOf(args, args.length + 2);
+        values[args.length] = lineNumber;
+        values[args.length + 1] = end - lineStart;
+
+        return new JSONException(message, values);
+    }
+
     /**
      * Throws exception on error.
      * @param message Message formatting.
      * @param args    Arguments.
      */
-    private static void onError(String message, Object... args) {
-        throw new JSONException(message, args);
+    private void onError(String message, Object... args) {
+        throw createException(position, message, args);
     }
 
     /**
@@ -454,7 +826,7 @@ public class JSONTokenizer {
      * @param message   Message formatting.
      * @param args      Arguments.
      */
-    private static void onError(boolean condition, String message, Object... args) {
+    private void onError(boolean condition, String message, Object... args) {
         if (condition) {
             onError(message, args);
         }
@@ -471,43 +843,40 @@ public class JSONTokenizer {
 
     /**
      * Writes JSON decimal.
+     *
+     * Decimal is written as the shortest String parsing back to the same
+     * value. NaN and infinite values are written as null.
+     *
      * @param value Double value.
      * @return JSON formatted String.
      */
     public static String writeDecimal(Double value) {
-        return String.valueOf(value);
+        if (value == null) {
+            return writeNull();
+        }
+
+        try {
+            JSONSerializer serializer = new JSONSerializer(null, JSONDecimalWriter.DECIMAL_LENGTH);
+            serializer.writeDecimal(value);
+
+            return serializer.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
      * Writes JSON string.
-     * @param value     String value.
-     * @param quoteType Quote type.
+     * @param value String value.
+     * @param quote Quote character.
      * @return JSON formatted String.
      */
-    private static String writeString(String value, final String quoteType) {
-        StringBuilder output = new StringBuilder(quoteType);
-
-        for (int i = 0; i < value.length(); i++) {
-            String key = value.substring(i, i + 1);
-
-            if (!key.equals(quoteType)) {
-                switch (key) {
-                    case "\t": key = "\\t"; break;
-                    case "\r": key = "\\r"; break;
-                    case "\n": key = "\\n"; break;
-                    case "\f": key = "\\f"; break;
-                    case "\b": key = "\\b"; break;
-                    case "\"": key = "\\\""; break;
-                    case "\\": key = "\\\\"; break;
-                }
-            } else {
-                output.append("\\");
-            }
-
-            output.append(key);
+    private static String writeString(String value, final char quote) {
+        try {
+            return new JSONSerializer(null, value.length() + 2).writeString(value, quote).toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-
-        return output.append(quoteType).toString();
     }
 
     /**
@@ -516,7 +885,7 @@ public class JSONTokenizer {
      * @return JSON formatted String.
      */
     public static String writeString(String value) {
-        return writeString(value, "\"");
+        return writeString(value, '"');
     }
 
     /**
@@ -525,7 +894,7 @@ public class JSONTokenizer {
      * @return JSON formatted String.
      */
     public static String writeSingleQuoteString(String value) {
-        return writeString(value, "'");
+        return writeString(value, '\'');
     }
 
     /**
@@ -534,18 +903,7 @@ public class JSONTokenizer {
      * @return JSON formatted string.
      */
     public static String writeObject(JSONObject object) {
-        AtomicBoolean hasPrevious = new AtomicBoolean();
-        StringBuilder output = new StringBuilder("{");
-
-        object.forEach((key, value) -> {
-            if (hasPrevious.getAndSet(true)) {
-                output.append(",");
-            }
-
-            output.append(String.format("%s:%s", writeString(key), value));
-        });
-
-        return output.append("}").toString();
+        return JSONSerializer.toString(JSONType.createObject(object));
     }
 
     /**
@@ -554,18 +912,7 @@ public class JSONTokenizer {
      * @return JSON formatted string.
      */
     public static String writeArray(JSONArray array) {
-        AtomicBoolean hasPrevious = new AtomicBoolean();
-        StringBuilder output = new StringBuilder("[");
-
-        array.stream().forEach(value -> {
-            if (hasPrevious.getAndSet(true)) {
-                output.append(",");
-            }
-
-            output.append(value);
-        });
-
-        return output.append("]").toString();
+        return JSONSerializer.toString(JSONType.createArray(array));
     }
 
     /**
@@ -586,58 +933,312 @@ public class JSONTokenizer {
     }
 
     /**
-     * Stores identifier data.
+     * Receives parsed values as positions of the input.
+     *
+     * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+     * @version 2018.1101
+     * @since   11
+     */
+    interface Builder {
+
+        /**
+         * Receives start of array.
+         * @param offset Position of opening bracket.
+         */
+        void startArray(int offset);
+
+        /**
+         * Receives end of array.
+         * @param offset Position after closing bracket.
+         */
+        void endArray(int offset);
+
+        /**
+         * Receives start of object.
+         * @param offset Position of opening brace.
+         */
+        void startObject(int offset);
+
+        /**
+         * Receives end of object.
+         * @param offset Position after closing brace.
+         */
+        void endObject(int offset);
+
+        /**
+         * Receives object key.
+         * @param start     Start of contents (inclusive).
+         * @param end       End of contents (exclusive).
+         * @param isEscaped Contents contain escapes.
+         */
+        void key(int start, int end, boolean isEscaped);
+
+        /**
+         * Receives string value.
+         * @param start     Start of contents (inclusive).
+         * @param end       End of contents (exclusive).
+         * @param isEscaped Contents contain escapes.
+         */
+        void string(int start, int end, boolean isEscaped);
+
+        /**
+         * Receives literal value.
+         * @param start   Start of literal (inclusive).
+         * @param end     End of literal (exclusive).
+         * @param literal Decoded literal.
+         */
+        void literal(int start, int end, JSONLiteral literal);
+    }
+
+    /**
+     * Passes parsed values to {@link JSONHandler} as decoded events.
+     *
+     * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+     * @version 2018.1101
+     * @since   11
+     */
+    private class HandlerBuilder implements Builder {
+
+        /**
+         * Stores receiver of events.
+         */
+        private final JSONHandler handler;
+
+        /**
+         * Overrides default constructor.
+         * @param handler Receiver of events.
+         */
+        HandlerBuilder(JSONHandler handler) {
+            this.handler = handler;
+        }
+
+        /**
+         * @see Builder#startArray
+         */
+        @Override
+        public void startArray(int offset) {
+            handler.startArray();
+        }
+
+        /**
+         * @see Builder#endArray
+         */
+        @Override
+        public void endArray(int offset) {
+            handler.endArray();
+        }
+
+        /**
+         * @see Builder#startObject
+         */
+        @Override
+        public void startObject(int offset) {
+            handler.startObject();
+        }
+
+        /**
+         * @see Builder#endObject
+         */
+        @Override
+        public void endObject(int offset) {
+            handler.endObject();
+        }
+
+        /**
+         * @see Builder#key
+         */
+        @Override
+        public void key(int start, int end, boolean isEscaped) {
+            handler.key(decodeString(start, end, isEscaped, JSONSymbolTable.MAX_KEY_LENGTH));
+        }
+
+        /**
+         * @see Builder#string
+         */
+        @Override
+        public void string(int start, int end, boolean isEscaped) {
+            handler.stringValue(decodeString(start, end, isEscaped, JSONSymbolTable.MAX_VALUE_LENGTH));
+        }
+
+        /**
+         * @see Builder#literal
+         */
+        @Override
+        public void literal(int start, int end, JSONLiteral literal) {
+            switch (literal.getType()) {
+                case NUMBER: handler.longValue(literal.getNumber()); break;
+                case DECIMAL: handler.doubleValue(literal.getDecimal()); break;
+                case BOOLEAN: handler.booleanValue(literal.getBoolean()); break;
+                default: handler.nullValue();
+            }
+        }
+    }
+
+    /**
+     * Builds JSONType trees from parsing events.
      *
      * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
      * @version 2018.1101
      * @since   11
      */
-    private class JSONIdentifier {
+    private static class TreeHandler implements JSONHandler {
+
+        /**
+         * Stores open containers.
+         */
+        private JSONType[] containers = new JSONType[16];
+
+        /**
+         * Stores pending keys of open containers.
+         */
+        private String[] keys = new String[16];
+
+        /**
+         * Stores amount of open containers.
+         */
+        private int size;
 
         /**
-         * Stores identifier data.
+         * Stores last completed top level value.
          */
-        private char identifier;
+        private JSONType result;
 
         /**
-         * Stores identifier exception.
+         * Gets last completed top level value.
+         * @return JSONType.
          */
-        private JSONException exception;
+        JSONType getResult() {
+            JSONType value = result;
+            result = null;
+
+            return value;
+        }
 
         /**
-         * Gets identifier data.
-         * @return Identifier as Character.
+         * Discards containers and result left by a failed parse.
          */
-        public char getIdentifier() {
-            return identifier;
+        void reset() {
+            Arrays.fill(containers, 0, size, null);
+            Arrays.fill(keys, 0, size, null);
+            size = 0;
+            result = null;
         }
 
         /**
-         * Gets exception from this identifier.
-         * @return {@link JSONException}.
+         * Adds completed value to current container.
+         * @param value Completed value.
          */
-        public JSONException getException() {
-            return exception;
+        private void add(JSONType value) {
+            if (size == 0) {
+                result = value;
+            } else if (keys[size - 1] != null) {
+                containers[size - 1].getAsObject().put(keys[size - 1], value);
+                keys[size - 1] = null;
+            } else {
+                containers[size - 1].getAsArray().append(value);
+            }
         }
 
         /**
-         * Overrides default contructor.
-         * @param identifier Identifier data.
-         * @param message    Exception message.
-         * @param args       Exception arguments.
+         * Opens new container.
+         * @param container Container value.
          */
-        public JSONIdentifier(char identifier, String message, Object... args) {
-            this.exception = new JSONException(message, args);
-            this.identifier = identifier;
+        private void push(JSONType container) {
+            if (size == containers.length) {
+                containers = Arrays.copyOf(containers, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+
+            containers[size++] = container;
+        }
+
+        /**
+         * Closes current container.
+         */
+        private void pop() {
+            JSONType container = containers[--size];
+            containers[size] = null;
+            add(container);
+        }
+
+        /**
+         * @see JSONHandler#startArray
+         */
+        @Override
+        public void startArray() {
+            push(JSONType.createArray(new JSONArray()));
+        }
+
+        /**
+         * @see JSONHandler#endArray
+         */
+        @Override
+        public void endArray() {
+            pop();
+        }
+
+        /**
+         * @see JSONHandler#startObject
+         */
+        @Override
+        public void startObject() {
+            push(JSONType.createObject(new JSONObject()));
+        }
+
+        /**
+         * @see JSONHandler#endObject
+         */
+        @Override
+        public void endObject() {
+            pop();
+        }
+
+        /**
+         * @see JSONHandler#key
+         */
+        @Override
+        public void key(String key) {
+            keys[size - 1] = key;
+        }
+
+        /**
+         * @see JSONHandler#longValue
+         */
+        @Override
+        public void longValue(long value) {
+            add(JSONType.createNumber(value));
+        }
+
+        /**
+         * @see JSONHandler#doubleValue
+         */
+        @Override
+        public void doubleValue(double value) {
+            add(JSONType.createDecimal(value));
+        }
+
+        /**
+         * @see JSONHandler#stringValue
+         */
+        @Override
+        public void stringValue(String value) {
+            add(JSONType.createString(value));
+        }
+
+        /**
+         * @see JSONHandler#booleanValue
+         */
+        @Override
+        public void booleanValue(boolean value) {
+            add(JSONType.createBoolean(value));
         }
 
         /**
-         * Overrides default implementation.
-         * @return Identifier as String.
+         * @see JSONHandler#nullValue
          */
         @Override
-        public String toString() {
-            return String.format("Identifier: %c", identifier);
+        public void nullValue() {
+            add(JSONType.createNull());
         }
     }
 }
\ No newline at end of file
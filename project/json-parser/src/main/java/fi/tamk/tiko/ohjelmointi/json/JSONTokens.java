@@ -0,0 +1,61 @@
+package fi.tamk.tiko.ohjelmointi.json;
+
+/**
+ * Defines tokens emitted by JSONStreamReader.
+ *
+ * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+ * @version 2018.1101
+ * @since   11
+ */
+public enum JSONTokens {
+
+    /**
+     * Defines start of an array.
+     */
+    START_ARRAY,
+
+    /**
+     * Defines end of an array.
+     */
+    END_ARRAY,
+
+    /**
+     * Defines start of an object.
+     */
+    START_OBJECT,
+
+    /**
+     * Defines end of an object.
+     */
+    END_OBJECT,
+
+    /**
+     * Defines object key.
+     */
+    KEY,
+
+    /**
+     * Defines string value.
+     */
+    STRING,
+
+    /**
+     * Defines number value.
+     */
+    NUMBER,
+
+    /**
+     * Defines decimal value.
+     */
+    DECIMAL,
+
+    /**
+     * Defines boolean value.
+     */
+    BOOLEAN,
+
+    /**
+     * Defines null value.
+     */
+    NULL
+}
\ No newline at end of file
@@ -3,48 +3,127 @@ package fi.tamk.tiko.ohjelmointi.json;
 /**
  * Stores JSON data type information.
  *
+ * Each JSON type is stored in its own subclass with a constant type, so
+ * scalars keep their value in a single primitive or String field. Values
+ * created by parsers and typed factories can be changed with {@link #set}
+ * only to a value of the same type, unless {@link #isImmutable} returns
+ * true. Values of changing type are created with {@link #create}. Factory
+ * methods return shared immutable instances for null, booleans and small
+ * numbers. Range of shared numbers can be extended up to 65535 with system
+ * property {@code fi.tamk.tiko.ohjelmointi.json.numberCacheHigh}.
+ *
  * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
  * @version 2018.1101
  * @since   11
  */
-public class JSONType {
+public abstract class JSONType {
+
+    /**
+     * Defines lowest shared number.
+     */
+    private static final int NUMBER_CACHE_LOW = -128;
+
+    /**
+     * Defines highest shared number.
+     */
+    private static final int NUMBER_CACHE_HIGH = Math.max(127, Math.min(Integer.getInteger("fi.tamk.tiko.ohjelmointi.json.numberCacheHigh", 1023), 65535));
+
+    /**
+     * Defines shared immutable null value.
+     */
+    public static final JSONType NULL = new NullType();
 
     /**
-     * Stores JSON data type.
+     * Defines shared immutable true value.
      */
-    private JSONTypes type;
+    public static final JSONType TRUE = new BooleanType(true);
 
     /**
-     * Stores JSON data value.
+     * Defines shared immutable false value.
      */
-    private Object object;
+    public static final JSONType FALSE = new BooleanType(false);
+
+    /**
+     * Stores shared immutable numbers.
+     */
+    private static final JSONType[] NUMBERS = createNumbers();
 
     /**
      * Gets type enum.
      * @return {@link JSONTypes} enumeration.
      */
-    public JSONTypes getType() {
-        return type;
-    }
+    public abstract JSONTypes getType();
+
+    /**
+     * Gets JSON data value.
+     * @return Object.
+     */
+    public abstract Object get();
 
     /**
-     * Sets object type and value.
+     * Sets value.
+     *
+     * Typed values accept only values of their own type, values created
+     * with {@link #create} accept any JSON type.
+     *
      * @param value Insertable object.
+     * @throws IllegalArgumentException Exception is thrown if value has a different type.
+     * @throws UnsupportedOperationException Exception is thrown if value is immutable.
      */
     public void set(Object value) {
-        if ((type = getTypeOf(value)) == null) {
+        throw new UnsupportedOperationException("Immutable JSONType");
+    }
+
+    /**
+     * Checks if value can be changed with {@link #set}.
+     * @return true if value is shared and immutable, otherwise false.
+     */
+    public boolean isImmutable() {
+        return true;
+    }
+
+    /**
+     * Checks that value has a JSON type.
+     * @param value Checked object.
+     * @return {@link JSONTypes} of value.
+     */
+    private static JSONTypes validate(Object value) {
+        JSONTypes type = getTypeOf(value);
+
+        if (type == null) {
             throw new IllegalArgumentException("Unknown object type.");
         }
 
-        object = value;
+        return type;
     }
 
     /**
-     * Gets JSON data value.
-     * @return Object.
+     * Creates exception for value not matching type of this value.
+     * @param value Rejected object.
+     * @return {@link IllegalArgumentException}.
+     */
+    final IllegalArgumentException createTypeException(Object value) {
+        return new IllegalArgumentException(String.format("Cannot change %s JSONType to %s.", getType(), validate(value)));
+    }
+
+    /**
+     * Remembers container holding this value.
+     *
+     * Immutable values never invalidate hash codes, so they keep no
+     * containers.
+     *
+     * @param parent Container holding this value.
      */
-    public Object get() {
-        return object;
+    void attach(JSONContainer parent) {
+        // Immutable values have no parents
+    }
+
+    /**
+     * Forgets container no longer holding this value.
+     * @param parent Container this value was removed from.
+     */
+    void detach(JSONContainer parent) {
+        // Immutable values have no parents
     }
 
     /**
@@ -52,7 +131,7 @@ public class JSONType {
      * @return {@link JSONArray}.
      */
     public JSONArray getAsArray() {
-        if (type.equals(JSONTypes.ARRAY)) {
+        if (getType() == JSONTypes.ARRAY) {
             return (JSONArray) get();
         }
 
@@ -64,7 +143,7 @@ public class JSONType {
      * @return {@link JSONObject}.
      */
     public JSONObject getAsObject() {
-        if (type.equals(JSONTypes.OBJECT)) {
+        if (getType() == JSONTypes.OBJECT) {
             return (JSONObject) get();
         }
 
@@ -76,7 +155,7 @@ public class JSONType {
      * @return String.
      */
     public String getAsString() {
-        if (type.equals(JSONTypes.STRING)) {
+        if (getType() == JSONTypes.STRING) {
             return (String) get();
         }
 
@@ -88,7 +167,7 @@ public class JSONType {
      * @return Double.
      */
     public Double getAsDecimal() {
-        if (type.equals(JSONTypes.DECIMAL)) {
+        if (getType() == JSONTypes.DECIMAL) {
             return (Double) get();
         }
 
@@ -100,7 +179,7 @@ public class JSONType {
      * @return Long.
      */
     public Long getAsNumber() {
-        if (type.equals(JSONTypes.NUMBER)) {
+        if (getType() == JSONTypes.NUMBER) {
             return (Long) get();
         }
 
@@ -112,7 +191,7 @@ public class JSONType {
      * @return Boolean.
      */
     public Boolean getAsBoolean() {
-        if (type.equals(JSONTypes.BOOLEAN)) {
+        if (getType() == JSONTypes.BOOLEAN) {
             return (Boolean) get();
         }
 
@@ -120,26 +199,42 @@ public class JSONType {
     }
 
     /**
-     * Checks if JSON data is null.
-     * @return true if value is null, otherwise false
+     * Gets JSON number without boxing.
+     * @return long.
      */
-    public boolean isNull() {
-        return get() == null && type.equals(JSONTypes.NULL);
+    public long getLong() {
+        return getAsNumber();
     }
 
     /**
-     * Overrides default constructor.
+     * Gets JSON decimal without boxing.
+     * @return double.
+     */
+    public double getDouble() {
+        return getAsDecimal();
+    }
+
+    /**
+     * Gets JSON boolean without boxing.
+     * @return boolean.
+     */
+    public boolean getBoolean() {
+        return getAsBoolean();
+    }
+
+    /**
+     * Checks if JSON data is null.
+     * @return true if value is null, otherwise false
      */
-    public JSONType() {
-        this(null);
+    public boolean isNull() {
+        return getType() == JSONTypes.NULL;
     }
 
     /**
-     * Overloads default constructor.
-     * @param object Object value.
+     * Overrides default constructor.
      */
-    public JSONType(Object object) {
-        set(object);
+    JSONType() {
+        // Value is stored by subclasses
     }
 
     /**
@@ -169,12 +264,21 @@ public class JSONType {
         return type;
     }
 
+    /**
+     * Creates new JSONType which may later change its type.
+     * @param value Object value.
+     * @return {@link JSONType}.
+     */
+    public static JSONType create(Object value) {
+        return new GenericType(value);
+    }
+
     /**
      * Creates new array JSONType.
      * @return {@link JSONType}.
      */
     public static JSONType createArray(JSONArray array) {
-        return new JSONType(array);
+        return array != null ? new ArrayType(array) : createNull();
     }
 
     /**
@@ -182,7 +286,7 @@ public class JSONType {
      * @return {@link JSONType}.
      */
     public static JSONType createObject(JSONObject object) {
-        return new JSONType(object);
+        return object != null ? new ObjectType(object) : createNull();
     }
 
     /**
@@ -190,7 +294,7 @@ public class JSONType {
      * @return {@link JSONType}.
      */
     public static JSONType createString(String value) {
-        return new JSONType(value);
+        return value != null ? new StringType(value) : createNull();
     }
 
     /**
@@ -198,7 +302,15 @@ public class JSONType {
      * @return {@link JSONType}.
      */
     public static JSONType createBoolean(Boolean value) {
-        return new JSONType(value);
+        return value != null ? createBoolean(value.booleanValue()) : createNull();
+    }
+
+    /**
+     * Creates new boolean JSONType.
+     * @return {@link JSONType}.
+     */
+    public static JSONType createBoolean(boolean value) {
+        return value ? TRUE : FALSE;
     }
 
     /**
@@ -206,7 +318,15 @@ public class JSONType {
      * @return {@link JSONType}.
      */
     public static JSONType createDecimal(Double value) {
-        return new JSONType(value);
+        return value != null ? new DecimalType(value) : createNull();
+    }
+
+    /**
+     * Creates new decimal JSONType.
+     * @return {@link JSONType}.
+     */
+    public static JSONType createDecimal(double value) {
+        return new DecimalType(value);
     }
 
     /**
@@ -214,7 +334,19 @@ public class JSONType {
      * @return {@link JSONType}.
      */
     public static JSONType createNumber(Long value) {
-        return new JSONType(value);
+        return value != null ? createNumber(value.longValue()) : createNull();
+    }
+
+    /**
+     * Creates new number JSONType.
+     * @return {@link JSONType}.
+     */
+    public static JSONType createNumber(long value) {
+        if (value >= NUMBER_CACHE_LOW && value <= NUMBER_CACHE_HIGH) {
+            return NUMBERS[(int) value - NUMBER_CACHE_LOW];
+        }
+
+        return new NumberType(value);
     }
 
     /**
@@ -222,7 +354,21 @@ public class JSONType {
      * @return {@link JSONType}.
      */
     public static JSONType createNull() {
-        return new JSONType();
+        return NULL;
+    }
+
+    /**
+     * Creates shared immutable numbers.
+     * @return Array of numbers.
+     */
+    private static JSONType[] createNumbers() {
+        JSONType[] numbers = new JSONType[NUMBER_CACHE_HIGH - NUMBER_CACHE_LOW + 1];
+
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = new ConstantNumberType(NUMBER_CACHE_LOW + i);
+        }
+
+        return numbers;
     }
 
     /**
@@ -261,21 +407,51 @@ public class JSONType {
     public boolean equals(Object object) {
         if (object instanceof JSONType) {
             JSONType jsonType = (JSONType) object;
+            JSONTypes type = getType();
 
             if (type == jsonType.getType()) {
-                Object value = jsonType.get();
-
-                if (type != JSONTypes.NULL) {
-                    return value.equals(get());
+                switch (type) {
+                    case NULL:
+                        return true;
+                    case NUMBER:
+                        return getLong() == jsonType.getLong();
+                    case DECIMAL:
+                        return Double.compare(getDouble(), jsonType.getDouble()) == 0;
+                    case BOOLEAN:
+                        return getBoolean() == jsonType.getBoolean();
                 }
 
-                return value == get();
+                return jsonType.get().equals(get());
             }
         }
 
         return false;
     }
 
+    /**
+     * Overrides default implementation.
+     *
+     * Hash code of a container is computed from hash codes of its children
+     * and cached by the container until a value inside it is changed.
+     *
+     * @return Hash code of value.
+     */
+    @Override
+    public int hashCode() {
+        switch (getType()) {
+            case NULL:
+                return 0;
+            case NUMBER:
+                return Long.hashCode(getLong());
+            case DECIMAL:
+                return Double.hashCode(getDouble());
+            case BOOLEAN:
+                return Boolean.hashCode(getBoolean());
+        }
+
+        return get().hashCode();
+    }
+
     /**
      * Overrides default implementation.
      * @return String representation of this type.
@@ -294,11 +470,638 @@ public class JSONType {
             case BOOLEAN:
                 return JSONTokenizer.writeBoolean(getAsBoolean());
             case OBJECT:
-                return JSONTokenizer.writeObject(getAsObject());
             case ARRAY:
-                return JSONTokenizer.writeArray(getAsArray());
+                return JSONSerializer.toString(this);
         }
 
         throw new IllegalStateException("JSONType contains illegal object.");
     }
+
+    /**
+     * Stores containers of a mutable JSON value.
+     *
+     * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+     * @version 2018.1101
+     * @since   11
+     */
+    abstract static class MutableType extends JSONType {
+
+        /**
+         * Stores containers holding this value.
+         */
+        private Object parents;
+
+        /**
+         * @see JSONType#attach
+         */
+        @Override
+        void attach(JSONContainer parent) {
+            parents = JSONContainer.addParent(parents, parent);
+        }
+
+        /**
+         * @see JSONType#detach
+         */
+        @Override
+        void detach(JSONContainer parent) {
+            parents = JSONContainer.removeParent(parents, parent);
+        }
+
+        /**
+         * Gets containers holding this value.
+         * @return Null, a container or {@link JSONContainer.Parents}.
+         */
+        final Object getParents() {
+            return parents;
+        }
+
+        /**
+         * Adds containers to contained array or object.
+         * @param value   Contained value.
+         * @param parents Null, a container or {@link JSONContainer.Parents}.
+         */
+        static void attachValue(Object value, Object parents) {
+            if (value instanceof JSONArray) {
+                JSONContainer.forEach(parents, ((JSONArray) value)::attach);
+            } else if (value instanceof JSONObject) {
+                JSONContainer.forEach(parents, ((JSONObject) value)::attach);
+            }
+        }
+
+        /**
+         * Removes containers from contained array or object.
+         * @param value   Contained value.
+         * @param parents Null, a container or {@link JSONContainer.Parents}.
+         */
+        static void detachValue(Object value, Object parents) {
+            if (value instanceof JSONArray) {
+                JSONContainer.forEach(parents, ((JSONArray) value)::detach);
+            } else if (value instanceof JSONObject) {
+                JSONContainer.forEach(parents, ((JSONObject) value)::detach);
+            }
+        }
+
+        /**
+         * Invalidates cached hash codes of containers holding this value.
+         */
+        final void onChange() {
+            JSONContainer.invalidate(parents);
+        }
+
+        /**
+         * @see JSONType#isImmutable
+         */
+        @Override
+        public boolean isImmutable() {
+            return false;
+        }
+    }
+
+    /**
+     * Stores JSON value of any type.
+     *
+     * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+     * @version 2018.1101
+     * @since   11
+     */
+    private static final class GenericType extends MutableType {
+
+        /**
+         * Stores JSON data type.
+         */
+        private JSONTypes type;
+
+        /**
+         * Stores JSON data value.
+         */
+        private Object object;
+
+        /**
+         * @see JSONType#getType
+         */
+        @Override
+        public JSONTypes getType() {
+            return type;
+        }
+
+        /**
+         * @see JSONType#get
+         */
+        @Override
+        public Object get() {
+            return object;
+        }
+
+        /**
+         * @see JSONType#set
+         */
+        @Override
+        public void set(Object value) {
+            type = validate(value);
+            detachValue(object, getParents());
+            object = value;
+            attachValue(object, getParents());
+            onChange();
+        }
+
+        /**
+         * @see JSONType#attach
+         */
+        @Override
+        void attach(JSONContainer parent) {
+            super.attach(parent);
+            attachValue(object, parent);
+        }
+
+        /**
+         * @see JSONType#detach
+         */
+        @Override
+        void detach(JSONContainer parent) {
+            super.detach(parent);
+            detachValue(object, parent);
+        }
+
+        /**
+         * Overrides default constructor.
+         * @param value Object value.
+         */
+        GenericType(Object value) {
+            this.type = validate(value);
+            this.object = value;
+        }
+    }
+
+    /**
+     * Stores JSON array.
+     *
+     * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+     * @version 2018.1101
+     * @since   11
+     */
+    private static final class ArrayType extends MutableType {
+
+        /**
+         * Stores array value.
+         */
+        private JSONArray array;
+
+        /**
+         * @see JSONType#getType
+         */
+        @Override
+        public JSONTypes getType() {
+            return JSONTypes.ARRAY;
+        }
+
+        /**
+         * @see JSONType#get
+         */
+        @Override
+        public Object get() {
+            return array;
+        }
+
+        /**
+         * @see JSONType#getAsArray
+         */
+        @Override
+        public JSONArray getAsArray() {
+            return array;
+        }
+
+        /**
+         * @see JSONType#set
+         */
+        @Override
+        public void set(Object value) {
+            if (!(value instanceof JSONArray)) {
+                throw createTypeException(value);
+            }
+
+            detachValue(array, getParents());
+            array = (JSONArray) value;
+            attachValue(array, getParents());
+            onChange();
+        }
+
+        /**
+         * @see JSONType#attach
+         */
+        @Override
+        void attach(JSONContainer parent) {
+            super.attach(parent);
+            array.attach(parent);
+        }
+
+        /**
+         * @see JSONType#detach
+         */
+        @Override
+        void detach(JSONContainer parent) {
+            super.detach(parent);
+            array.detach(parent);
+        }
+
+        /**
+         * Overrides default constructor.
+         * @param array Array value.
+         */
+        ArrayType(JSONArray array) {
+            this.array = array;
+        }
+    }
+
+    /**
+     * Stores JSON object.
+     *
+     * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+     * @version 2018.1101
+     * @since   11
+     */
+    private static final class ObjectType extends MutableType {
+
+        /**
+         * Stores object value.
+         */
+        private JSONObject object;
+
+        /**
+         * @see JSONType#getType
+         */
+        @Override
+        public JSONTypes getType() {
+            return JSONTypes.OBJECT;
+        }
+
+        /**
+         * @see JSONType#get
+         */
+        @Override
+        public Object get() {
+            return object;
+        }
+
+        /**
+         * @see JSONType#getAsObject
+         */
+        @Override
+        public JSONObject getAsObject() {
+            return object;
+        }
+
+        /**
+         * @see JSONType#set
+         */
+        @Override
+        public void set(Object value) {
+            if (!(value instanceof JSONObject)) {
+                throw createTypeException(value);
+            }
+
+            detachValue(object, getParents());
+            object = (JSONObject) value;
+            attachValue(object, getParents());
+            onChange();
+        }
+
+        /**
+         * @see JSONType#attach
+         */
+        @Override
+        void attach(JSONContainer parent) {
+            super.attach(parent);
+            object.attach(parent);
+        }
+
+        /**
+         * @see JSONType#detach
+         */
+        @Override
+        void detach(JSONContainer parent) {
+            super.detach(parent);
+            object.detach(parent);
+        }
+
+        /**
+         * Overrides default constructor.
+         * @param object Object value.
+         */
+        ObjectType(JSONObject object) {
+            this.object = object;
+        }
+    }
+
+    /**
+     * Stores JSON number in a primitive field.
+     *
+     * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+     * @version 2018.1101
+     * @since   11
+     */
+    private static class NumberType extends MutableType {
+
+        /**
+         * Stores number value.
+         */
+        private long value;
+
+        /**
+         * @see JSONType#getType
+         */
+        @Override
+        public JSONTypes getType() {
+            return JSONTypes.NUMBER;
+        }
+
+        /**
+         * @see JSONType#get
+         */
+        @Override
+        public Object get() {
+            return value;
+        }
+
+        /**
+         * @see JSONType#set
+         */
+        @Override
+        public void set(Object value) {
+            if (!(value instanceof Long)) {
+                throw createTypeException(value);
+            }
+
+            this.value = (Long) value;
+            onChange();
+        }
+
+        /**
+         * @see JSONType#getLong
+         */
+        @Override
+        public long getLong() {
+            return value;
+        }
+
+        /**
+         * Overrides default constructor.
+         * @param value Number value.
+         */
+        NumberType(long value) {
+            this.value = value;
+        }
+
+        /**
+         * @see JSONType#toString
+         */
+        @Override
+        public String toString() {
+            return Long.toString(value);
+        }
+    }
+
+    /**
+     * Stores JSON decimal in a primitive field.
+     *
+     * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+     * @version 2018.1101
+     * @since   11
+     */
+    private static final class DecimalType extends MutableType {
+
+        /**
+         * Stores decimal value.
+         */
+        private double value;
+
+        /**
+         * @see JSONType#getType
+         */
+        @Override
+        public JSONTypes getType() {
+            return JSONTypes.DECIMAL;
+        }
+
+        /**
+         * @see JSONType#get
+         */
+        @Override
+        public Object get() {
+            return value;
+        }
+
+        /**
+         * @see JSONType#set
+         */
+        @Override
+        public void set(Object value) {
+            if (!(value instanceof Double)) {
+                throw createTypeException(value);
+            }
+
+            this.value = (Double) value;
+            onChange();
+        }
+
+        /**
+         * @see JSONType#getDouble
+         */
+        @Override
+        public double getDouble() {
+            return value;
+        }
+
+        /**
+         * Overrides default constructor.
+         * @param value Decimal value.
+         */
+        DecimalType(double value) {
+            this.value = value;
+        }
+
+        /**
+         * @see JSONType#toString
+         */
+        @Override
+        public String toString() {
+            return JSONTokenizer.writeDecimal(value);
+        }
+    }
+
+    /**
+     * Stores JSON string.
+     *
+     * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+     * @version 2018.1101
+     * @since   11
+     */
+    private static final class StringType extends MutableType {
+
+        /**
+         * Stores string value.
+         */
+        private String value;
+
+        /**
+         * @see JSONType#getType
+         */
+        @Override
+        public JSONTypes getType() {
+            return JSONTypes.STRING;
+        }
+
+        /**
+         * @see JSONType#get
+         */
+        @Override
+        public Object get() {
+            return value;
+        }
+
+        /**
+         * @see JSONType#getAsString
+         */
+        @Override
+        public String getAsString() {
+            return value;
+        }
+
+        /**
+         * @see JSONType#set
+         */
+        @Override
+        public void set(Object value) {
+            if (!(value instanceof String)) {
+                throw createTypeException(value);
+            }
+
+            this.value = (String) value;
+            onChange();
+        }
+
+        /**
+         * Overrides default constructor.
+         * @param value String value.
+         */
+        StringType(String value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Stores shared immutable JSON boolean.
+     *
+     * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+     * @version 2018.1101
+     * @since   11
+     */
+    private static final class BooleanType extends JSONType {
+
+        /**
+         * Stores boolean value.
+         */
+        private final boolean value;
+
+        /**
+         * @see JSONType#getType
+         */
+        @Override
+        public JSONTypes getType() {
+            return JSONTypes.BOOLEAN;
+        }
+
+        /**
+         * @see JSONType#get
+         */
+        @Override
+        public Object get() {
+            return value;
+        }
+
+        /**
+         * @see JSONType#getBoolean
+         */
+        @Override
+        public boolean getBoolean() {
+            return value;
+        }
+
+        /**
+         * Overrides default constructor.
+         * @param value Boolean value.
+         */
+        BooleanType(boolean value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Stores shared immutable JSON null.
+     *
+     * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+     * @version 2018.1101
+     * @since   11
+     */
+    private static final class NullType extends JSONType {
+
+        /**
+         * @see JSONType#getType
+         */
+        @Override
+        public JSONTypes getType() {
+            return JSONTypes.NULL;
+        }
+
+        /**
+         * @see JSONType#get
+         */
+        @Override
+        public Object get() {
+            return null;
+        }
+    }
+
+    /**
+     * Stores shared immutable JSON number.
+     *
+     * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+     * @version 2018.1101
+     * @since   11
+     */
+    private static final class ConstantNumberType extends NumberType {
+
+        /**
+         * @see JSONType#isImmutable
+         */
+        @Override
+        public boolean isImmutable() {
+            return true;
+        }
+
+        /**
+         * Keeps no containers for shared value.
+         * @param parent Container holding this value.
+         */
+        @Override
+        void attach(JSONContainer parent) {
+            // Shared values never change
+        }
+
+        /**
+         * Rejects change of shared value.
+         * @param value Insertable object.
+         */
+        @Override
+        public void set(Object value) {
+            throw new UnsupportedOperationException("Immutable JSONType");
+        }
+
+        /**
+         * Overrides default constructor.
+         * @param value Number value.
+         */
+        ConstantNumberType(long value) {
+            super(value);
+        }
+    }
 }
\ No newline at end of file
@@ -4,6 +4,12 @@ import java.io.Writer;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
 /**
  * Writes JSON formatted data.
  *
@@ -14,52 +20,78 @@ import java.io.OutputStream;
 public class JSONWriter implements AutoCloseable {
 
     /**
-     * Stores {@link Writer}.
+     * Stores {@link Writer} or {@link WritableByteChannel}.
      */
     private Object writable;
 
     /**
-     * Uses {@link Writer} to write contents.
-     * @param data Writable JSON data.
-     * @return true if successful, otherwise false.
-     * @throws IOException Exception is thrown if file is unaccessible.
+     * Stores serializer writing to the writable object.
      */
-    private boolean useWriter(String data) throws IOException {
-        if (writable instanceof Writer) {
-            ((Writer) writable).write(data);
+    private final JSONSerializer serializer;
 
-            return true;
-        }
+    /**
+     * Stores UTF-8 encoder of byte output or null for {@link Writer}.
+     */
+    private JSONChannelWriter encoder;
 
-        return false;
+    /**
+     * Sets how NaN and infinite decimals are written.
+     * @param nonFinite {@link JSONNonFinite}, defaults to {@link JSONNonFinite#NULL}.
+     */
+    public void setNonFinite(JSONNonFinite nonFinite) {
+        serializer.setNonFinite(nonFinite);
     }
 
     /**
-     * Uses {@link OutputStream} to write contents.
-     * @param data Writable JSON data.
-     * @return true if successful, otherwise false.
+     * Flushes serialized data to the writable object.
      * @throws IOException Exception is thrown if file is unaccessible.
      */
-    private boolean useStream(String data) throws IOException {
-        if (writable instanceof OutputStream) {
-            ((OutputStream) writable).write(data.getBytes());
+    private void flush() throws IOException {
+        serializer.flush();
 
-            return true;
+        if (encoder != null) {
+            encoder.flush();
         }
-
-        return false;
     }
 
     /**
      * Writes JSON data type.
+     *
+     * Value is serialized through a fixed-size buffer directly to the
+     * writable object, the document is never built as a single String.
+     *
      * @param value {@link JSONType}.
      * @throws IOException On write operation failure.
      */
     public void write(JSONType value) throws IOException {
-        final String data = value.toString();
+        serializer.write(value);
+        flush();
+    }
 
-        if (!useWriter(data) && !useStream(data)) {
-            throw new IllegalStateException("Illegal JSONWriter state.");
+    /**
+     * Writes JSON data type as a newline-delimited record.
+     *
+     * Record is written in compact form followed by a line feed, so records
+     * can be appended to an existing file and read back one at a time with
+     * {@link JSONReader#stream}.
+     *
+     * @param value {@link JSONType}.
+     * @throws IOException On write operation failure.
+     */
+    public void writeRecord(JSONType value) throws IOException {
+        serializer.write(value).append('\n');
+        flush();
+    }
+
+    /**
+     * Writes JSON data types as newline-delimited records.
+     * @param values Iterable of {@link JSONType}.
+     * @throws IOException On write operation failure.
+     * @see #writeRecord
+     */
+    public void writeRecords(Iterable<JSONType> values) throws IOException {
+        for (JSONType value : values) {
+            writeRecord(value);
         }
     }
 
@@ -131,14 +163,43 @@ public class JSONWriter implements AutoCloseable {
      */
     public JSONWriter(Writer writer) {
         this.writable = writer;
+        this.serializer = new JSONSerializer(writer, JSONSerializer.BUFFER_SIZE);
     }
 
     /**
      * Overrides default contructor.
-     * @param stream {@link OutputStream} object.
+     * @param stream {@link OutputStream} object, written as UTF-8.
      */
     public JSONWriter(OutputStream stream) {
-        this.writable = stream;
+        this(Channels.newChannel(stream));
+    }
+
+    /**
+     * Overloads default contructor.
+     *
+     * Values are encoded as UTF-8 straight into a pooled direct buffer,
+     * which is written to the channel whenever it fills.
+     *
+     * @param channel {@link WritableByteChannel} object, written as UTF-8.
+     */
+    public JSONWriter(WritableByteChannel channel) {
+        this.writable = channel;
+        this.encoder = new JSONChannelWriter(channel);
+        this.serializer = new JSONSerializer(encoder, JSONSerializer.BUFFER_SIZE);
+    }
+
+    /**
+     * Opens file for writing as UTF-8.
+     *
+     * Existing file is truncated. Memory used for writing does not depend
+     * on size of written values.
+     *
+     * @param path File path.
+     * @return New {@link JSONWriter}.
+     * @throws IOException Exception is thrown if file is unaccessible.
+     */
+    public static JSONWriter open(Path path) throws IOException {
+        return new JSONWriter(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
     }
 
     /**
@@ -146,8 +207,8 @@ public class JSONWriter implements AutoCloseable {
      */
     @Override
     public void close() throws Exception {
-        if (writable instanceof OutputStream) {
-            ((OutputStream) writable).close();
+        if (encoder != null) {
+            encoder.close();
         } else if (writable instanceof Writer) {
             ((Writer) writable).close();
         }
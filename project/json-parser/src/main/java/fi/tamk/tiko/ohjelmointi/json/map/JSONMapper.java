@@ -93,6 +93,53 @@ public abstract class JSONMapper {
         return annotation == null ? null : annotation.key();
     }
 
+    /**
+     * Converts JSON value to field value.
+     *
+     * Number and decimal arrays are copied with {@link JSONArray#toLongArray}
+     * and {@link JSONArray#toDoubleArray}, so no element is wrapped in a
+     * JSONType on the way.
+     *
+     * @param type  Field type.
+     * @param value JSON value.
+     * @return Field value.
+     */
+    private static Object toFieldValue(Class<?> type, Object value) {
+        if (value instanceof JSONArray && type == long[].class) {
+            return ((JSONArray) value).toLongArray();
+        } else if (value instanceof JSONArray && type == double[].class) {
+            return ((JSONArray) value).toDoubleArray();
+        }
+
+        return value;
+    }
+
+    /**
+     * Converts field value to JSON value.
+     *
+     * Number and decimal arrays are stored in primitive array storage.
+     *
+     * @param value Field value.
+     * @return JSON value.
+     */
+    private static Object toJSONValue(Object value) {
+        JSONArray array = new JSONArray();
+
+        if (value instanceof long[]) {
+            for (long number : (long[]) value) {
+                array.addNumber(number);
+            }
+        } else if (value instanceof double[]) {
+            for (double decimal : (double[]) value) {
+                array.addDecimal(decimal);
+            }
+        } else {
+            return value;
+        }
+
+        return array;
+    }
+
     /**
      * Loads mapping information to given class.
      * @param object    Class information.
@@ -131,7 +178,7 @@ public abstract class JSONMapper {
                 String key = readJSONDataValues(field);
 
                 if (key != null && data.containsKey(key)) {
-                    Object value = data.get(key).get();
+                    Object value = toFieldValue(field.getType(), data.get(key).get());
                     Class<?> type = value == null ? field.getType() : value.getClass();
                     Method setter = setterMethod(classInfo, key, type);
 
@@ -170,7 +217,7 @@ public abstract class JSONMapper {
 
                     getter.trySetAccessible();
                     Object result = getter.invoke(object);
-                    classData.put(key, new JSONType(result));
+                    classData.put(key, JSONType.create(toJSONValue(result)));
                 }
             }
 
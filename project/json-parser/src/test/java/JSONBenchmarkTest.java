@@ -0,0 +1,197 @@
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import fi.tamk.tiko.ohjelmointi.json.*;
+
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.File;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Benchmarks parser performance.
+ *
+ * Benchmarks are skipped by default, run them with: mvn test -Dbenchmark=true
+ *
+ * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+ * @version 2018.1101
+ * @since   11
+ */
+@EnabledIfSystemProperty(named="benchmark", matches="true")
+public class JSONBenchmarkTest extends Assertions {
+
+    /**
+     * Defines amount of items in generated list.
+     */
+    private static final int ITEM_COUNT = 200000;
+
+    /**
+     * Defines amount of measured rounds.
+     */
+    private static final int ROUNDS = 10;
+
+    /**
+     * Stores generated list file.
+     */
+    private static File listFile;
+
+    /**
+     * Stores generated list.
+     */
+    private static JSONArray list;
+
+    /**
+     * Defines benchmarked action.
+     */
+    private interface Action {
+
+        /**
+         * Runs benchmarked action.
+         * @return Result to keep alive.
+         * @throws Exception On failure.
+         */
+        Object run() throws Exception;
+    }
+
+    /**
+     * Creates shopping list file similar to saved lists.
+     */
+    @BeforeAll
+    public static void createList() throws Exception {
+        list = new JSONArray();
+
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            JSONObject item = new JSONObject();
+            item.putString("itemName", "Item number " + i);
+            item.putNumber("itemAmount", (long) i);
+
+            JSONObject container = new JSONObject();
+            container.putObject("fi.tamk.tiko.ohjelmointi.gui.Item", item);
+            list.addObject(container);
+        }
+
+        listFile = File.createTempFile("benchmark", ".json");
+        listFile.deleteOnExit();
+
+        try (JSONWriter writer = new JSONWriter(new FileWriter(listFile, StandardCharsets.UTF_8))) {
+            writer.writeArray(list);
+        }
+    }
+
+    /**
+     * Measures given action.
+     * @param name   Benchmark name.
+     * @param action Benchmarked action.
+     * @return Average time in milliseconds.
+     */
+    private static double measure(String name, Action action) throws Exception {
+        for (int i = 0; i < ROUNDS; i++) {
+            assertNotNull(action.run());
+        }
+
+        long start = System.nanoTime();
+
+        for (int i = 0; i < ROUNDS; i++) {
+            assertNotNull(action.run());
+        }
+
+        double average = (System.nanoTime() - start) / 1e6 / ROUNDS;
+        System.out.println(String.format("%-40s %10.2f ms", name, average));
+
+        return average;
+    }
+
+    /**
+     * Compares memory mapped reading against reader based reading.
+     */
+    @Test
+    public void benchmarkMappedReader() throws Exception {
+        System.out.println("--[[ Benchmark: Mapped Reader ]]--");
+        Path path = listFile.toPath();
+
+        measure("JSONReader(FileReader)", () -> {
+            try (JSONReader reader = new JSONReader(new FileReader(listFile, StandardCharsets.UTF_8))) {
+                return reader.readObject();
+            }
+        });
+
+        measure("JSONReader(FileReader, length)", () -> {
+            try (JSONReader reader = new JSONReader(new FileReader(listFile, StandardCharsets.UTF_8), listFile.length())) {
+                return reader.readObject();
+            }
+        });
+
+        measure("JSONReader.open(Path)", () -> {
+            try (JSONReader reader = JSONReader.open(path)) {
+                return reader.readObject();
+            }
+        });
+
+        try (JSONReader reader = JSONReader.open(path)) {
+            assertEquals(list, reader.readObject().getAsArray());
+        }
+
+        System.out.println("Success: All tests completed");
+    }
+
+    /**
+     * Compares path selection against building the full tree.
+     */
+    @Test
+    public void benchmarkPathSelection() throws Exception {
+        System.out.println("--[[ Benchmark: Path Selection ]]--");
+        JSONPath path = JSONPath.compile("$[*].*.itemName");
+
+        measure("JSONReader full tree", () -> {
+            try (JSONReader reader = new JSONReader(new FileReader(listFile, StandardCharsets.UTF_8))) {
+                return reader.readObject();
+            }
+        });
+
+        measure("JSONPath.select(" + path + ")", () -> {
+            try (JSONStreamReader reader = new JSONStreamReader(new FileReader(listFile, StandardCharsets.UTF_8))) {
+                return path.select(reader);
+            }
+        });
+
+        try (JSONStreamReader reader = new JSONStreamReader(new FileReader(listFile, StandardCharsets.UTF_8))) {
+            assertEquals(ITEM_COUNT, path.select(reader).size());
+        }
+
+        System.out.println("Success: All tests completed");
+    }
+
+    /**
+     * Measures parallel parsing across pool sizes.
+     */
+    @Test
+    public void benchmarkParallelScaling() throws Exception {
+        System.out.println("--[[ Benchmark: Parallel Scaling ]]--");
+        Path path = listFile.toPath();
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        for (int parallelism = 1; parallelism <= Math.max(2, processors); parallelism *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+            try {
+                measure(String.format("JSONReader.readObject(%d threads)", parallelism), () -> {
+                    try (JSONReader reader = JSONReader.open(path)) {
+                        return reader.readObject(pool);
+                    }
+                });
+
+                try (JSONReader reader = JSONReader.open(path)) {
+                    assertEquals(list, reader.readObject(pool).getAsArray());
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        System.out.println("Success: All tests completed");
+    }
+}
\ No newline at end of file
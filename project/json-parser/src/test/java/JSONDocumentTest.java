@@ -0,0 +1,73 @@
+import org.junit.jupiter.api.*;
+
+import fi.tamk.tiko.ohjelmointi.json.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Tests lazy document model.
+ *
+ * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+ * @version 2018.1101
+ * @since   11
+ */
+public class JSONDocumentTest extends Assertions {
+
+    /**
+     * Tests navigation of lazy nodes.
+     */
+    @Test
+    public void testJSONDocumentNavigation() {
+        System.out.println("--[[ Document: Navigation ]]--");
+        final String JSON = "{'items': [{'name': 'milk', 'amount': 2}, {'name': 'br\\u00e4d', 'amount': -1.5e1}],"
+            + " 'äö': true, 'empty': {}, 'none': null}";
+
+        JSONDocument document = JSONDocument.parse(JSON.getBytes(StandardCharsets.UTF_8));
+        JSONNode root = document.getRoot();
+
+        assertEquals(JSONTypes.OBJECT, root.getType());
+        assertEquals(4, root.size());
+        assertEquals(List.of("items", "äö", "empty", "none"), root.getKeys());
+
+        JSONNode items = root.get("items");
+
+        assertEquals(2, items.size());
+        assertEquals("milk", items.get(0).get("name").getAsString());
+        assertEquals(Long.valueOf(2), items.get(0).get("amount").getAsNumber());
+        assertEquals("bräd", items.get(1).get("name").getAsString());
+        assertEquals(Double.valueOf(-15.0), items.get(1).get("amount").getAsDecimal());
+        assertTrue(root.get("äö").getAsBoolean());
+        assertTrue(root.get("none").isNull());
+        assertEquals(0, root.get("empty").size());
+        assertFalse(root.has("missing"));
+
+        assertThrows(ClassCastException.class, () -> items.get("name"));
+        assertThrows(IndexOutOfBoundsException.class, () -> items.get(2));
+
+        assertEquals(new JSONTokenizer(JSON).parse(), root.toJSONType());
+        assertEquals(new JSONTokenizer(JSON).parse().getAsObject().get("items"), items.toJSONType());
+        assertEquals(JSONType.createString("milk"), items.getChildren().get(0).getChildren().get(0).toJSONType());
+
+        System.out.println("Success: All tests completed");
+    }
+
+    /**
+     * Tests document validation.
+     */
+    @Test
+    public void testJSONDocumentValidation() {
+        System.out.println("--[[ Document: Validation ]]--");
+
+        assertNull(JSONDocument.parse(" // empty").getRoot());
+        assertEquals(JSONType.createNumber(5L), JSONDocument.parse("5").getRoot().toJSONType());
+
+        final String[] ERROR_VALUES = {"[1,]", "{'a' 1}", "[1] 2", "['a", "[tru]"};
+
+        for (String value : ERROR_VALUES) {
+            assertThrows(JSONException.class, () -> JSONDocument.parse(value));
+        }
+
+        System.out.println("Success: All tests completed");
+    }
+}
\ No newline at end of file
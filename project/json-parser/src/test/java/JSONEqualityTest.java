@@ -3,6 +3,15 @@ import org.junit.jupiter.api.*;
 import fi.tamk.tiko.ohjelmointi.json.*;
 import fi.tamk.tiko.ohjelmointi.json.map.*;
 
+import java.lang.reflect.Field;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
 /**
  * Tests for object equality.
  *
@@ -22,12 +31,15 @@ public class JSONEqualityTest extends Assertions {
 
         JSONObject personData = new JSONObject();
         personData.putString("name", PERSON_NAME);
+        personData.putArray("scores", new JSONTokenizer("[3, 1, 2]").parse().getAsArray());
 
         personData = JSONMapper.mapObject(Person.class, personData);
         Person person = JSONMapper.loadInstanceMapping(new Person(), personData);
 
         assertTrue(person instanceof Person);
         assertSame(PERSON_NAME, person.getName());
+        assertArrayEquals(new long[] { 3, 1, 2 }, person.getScores());
+        assertEquals(personData, JSONMapper.saveMapping(person));
 
         System.out.println("Success: All tests completed");
     }
@@ -145,6 +157,12 @@ public class JSONEqualityTest extends Assertions {
         @JSONData(key="name")
         private String name;
 
+        /**
+         * Stores person scores.
+         */
+        @JSONData(key="scores")
+        private long[] scores;
+
         /**
          * Sets person name.
          * @param name Person name.
@@ -160,5 +178,160 @@ public class JSONEqualityTest extends Assertions {
         public String getName() {
             return name;
         }
+
+        /**
+         * Sets person scores.
+         * @param scores Person scores.
+         */
+        public void setScores(long[] scores) {
+            this.scores = scores;
+        }
+
+        /**
+         * Gets person scores.
+         * @return Person scores as long array.
+         */
+        public long[] getScores() {
+            return scores;
+        }
+    }
+
+    /**
+     * Tests hash codes and their invalidation.
+     */
+    @Test
+    public void testJSONHashCode() {
+        System.out.println("--[[ Hash Code ]]--");
+        final String JSON = "{'items': [{'name': 'milk', 'amount': 2}, {'name': 'bread', 'amount': 1.5}], 'flags': [true, null]}";
+
+        JSONType first = new JSONTokenizer(JSON).parse();
+        JSONType second = new JSONTokenizer(JSON).parse();
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals(new HashMap<>(first.getAsObject()).hashCode(), first.hashCode());
+        assertEquals(new ArrayList<>(first.getAsObject().get("items").getAsArray()), first.getAsObject().get("items").getAsArray());
+        assertEquals(List.of(1L, 2L, 3L).hashCode(), new JSONTokenizer("[1, 2, 3]").parse().hashCode());
+        assertEquals(JSONType.create(4096L).hashCode(), JSONType.createNumber(4096L).hashCode());
+
+        JSONObject bread = second.getAsObject().get("items").getAsArray().get(1).getAsObject();
+        bread.putNumber("amount", 3L);
+        assertNotEquals(first, second);
+        assertNotEquals(first.hashCode(), second.hashCode());
+
+        bread.putDecimal("amount", 1.5);
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+
+        JSONType name = second.getAsObject().get("items").getAsArray().get(0).getAsObject().get("name");
+        name.set("cream");
+        assertNotEquals(first, second);
+        name.set("milk");
+        assertEquals(first, second);
+
+        JSONType shared = JSONType.createString("shared");
+        JSONArray left = new JSONArray();
+        JSONObject right = new JSONObject();
+        left.add(shared);
+        right.put("value", shared);
+        int leftHash = left.hashCode();
+        int rightHash = right.hashCode();
+
+        shared.set("changed");
+        assertNotEquals(leftHash, left.hashCode());
+        assertNotEquals(rightHash, right.hashCode());
+
+        JSONType numbers = new JSONTokenizer("{'values': [4096, 8192]}").parse();
+        int numbersHash = numbers.hashCode();
+        numbers.getAsObject().get("values").getAsArray().get(0).set(2048L);
+        assertEquals(new JSONTokenizer("{'values': [2048, 8192]}").parse().hashCode(), numbers.hashCode());
+        assertNotEquals(numbersHash, numbers.hashCode());
+
+        Set<JSONType> values = new HashSet<>();
+        values.add(first);
+        assertTrue(values.contains(second));
+
+        System.out.println("Success: All tests completed");
+    }
+
+    /**
+     * Tests that removed values no longer invalidate former containers.
+     * @throws Exception Exception is thrown if hash fields are unaccessible.
+     */
+    @Test
+    public void testJSONHashDetach() throws Exception {
+        System.out.println("--[[ Hash Code: Detach ]]--");
+        JSONType moved = JSONType.createString("moved");
+        JSONArray original = new JSONArray();
+        JSONArray replaced = new JSONArray();
+        JSONObject removed = new JSONObject();
+
+        original.add(moved);
+        replaced.add(moved);
+        removed.put("value", moved);
+        original.remove(0);
+        replaced.set(0, JSONType.createNull());
+        removed.remove("value");
+
+        original.hashCode();
+        replaced.hashCode();
+        removed.hashCode();
+        moved.set("changed");
+        assertTrue(isHashCached(original));
+        assertTrue(isHashCached(replaced));
+        assertTrue(isHashCached(removed));
+
+        JSONArray inner = new JSONArray();
+        JSONObject holder = new JSONObject();
+        JSONArray list = new JSONArray();
+        JSONType wrapper = JSONType.createArray(inner);
+        JSONArray cleared = new JSONArray();
+
+        holder.putArray("inner", inner);
+        holder.putArray("inner", new JSONArray());
+        holder.put("wrapper", wrapper);
+        wrapper.set(new JSONArray());
+        list.addArray(inner);
+        cleared.addArray(inner);
+        cleared.clear();
+
+        Iterator<JSONType> iterator = list.iterator();
+        iterator.next();
+        iterator.remove();
+
+        holder.hashCode();
+        list.hashCode();
+        cleared.hashCode();
+        inner.addString("added");
+        assertTrue(isHashCached(holder));
+        assertTrue(isHashCached(list));
+        assertTrue(isHashCached(cleared));
+
+        JSONArray twice = new JSONArray();
+        twice.add(moved);
+        twice.add(moved);
+        twice.remove(0);
+
+        int twiceHash = twice.hashCode();
+        moved.set("again");
+        assertFalse(isHashCached(twice));
+        assertNotEquals(twiceHash, twice.hashCode());
+
+        System.out.println("Success: All tests completed");
+    }
+
+    /**
+     * Checks whether container has cached its hash code.
+     * @param container JSONArray or JSONObject.
+     * @return true if hash code is cached, otherwise false.
+     * @throws ReflectiveOperationException Exception is thrown if hash fields are unaccessible.
+     */
+    private static boolean isHashCached(Object container) throws ReflectiveOperationException {
+        Field hash = container.getClass().getDeclaredField("hash");
+        Field hashIsZero = container.getClass().getDeclaredField("hashIsZero");
+        hash.setAccessible(true);
+        hashIsZero.setAccessible(true);
+
+        return hash.getInt(container) != 0 || hashIsZero.getBoolean(container);
     }
 }
\ No newline at end of file
@@ -2,10 +2,24 @@ import org.junit.jupiter.api.*;
 
 import fi.tamk.tiko.ohjelmointi.json.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.InputStream;
 import java.io.FileOutputStream;
+import java.io.StringReader;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Tests file handling.
@@ -80,6 +94,13 @@ public class JSONFileTest extends Assertions {
             fail("Cannot read from resource: " + path);
         }
 
+        try (JSONReader reader = new JSONReader(new FileReader(path), new File(path).length())) {
+            assertEquals(value, reader.readObject());
+            assertNull(reader.readObject());
+        } catch (Exception e) {
+            fail("Cannot read from resource: " + path);
+        }
+
         final int SIZE = 10;
         JSONArray array = value.getAsArray();
         assertEquals(SIZE, array.size());
@@ -113,6 +134,88 @@ public class JSONFileTest extends Assertions {
         System.out.println("Success: All tests completed");
     }
 
+    /**
+     * Test JSON reading of encoded and large contents.
+     */
+    @Test
+    public void testJSONReaderEncoding() throws Exception {
+        System.out.println("--[[ JSON Reader Encoding ]]--");
+        String text = "{'name': 'ÄÅ😂✓', 'values': [1, 2.5]}";
+        JSONType expected = new JSONTokenizer(text).parse();
+
+        final byte[][] ENCODED_VALUES = {
+            ("\uFEFF" + text).getBytes(StandardCharsets.UTF_8), ("\uFEFF" + text).getBytes(StandardCharsets.UTF_16LE),
+            text.getBytes(StandardCharsets.UTF_16), text.getBytes(StandardCharsets.UTF_16BE), text.getBytes(StandardCharsets.UTF_16LE)
+        };
+
+        for (byte[] bytes : ENCODED_VALUES) {
+            try (JSONReader reader = new JSONReader(new ByteArrayInputStream(bytes))) {
+                assertEquals(expected, reader.readObject());
+            }
+
+            try (JSONReader reader = new JSONReader(ByteBuffer.wrap(bytes))) {
+                assertEquals(expected, reader.readObject());
+            }
+        }
+
+        try (JSONReader reader = new JSONReader(new StringReader("\uFEFF" + text))) {
+            assertEquals(expected, reader.readObject());
+        }
+
+        JSONArray array = new JSONArray();
+
+        for (int i = 0; i < 10000; i++) {
+            array.addString("item " + i);
+        }
+
+        String large = JSONType.createArray(array).toString();
+
+        for (int i = 0; i < 2; i++) {
+            try (JSONReader reader = new JSONReader(new StringReader(large))) {
+                assertEquals(array, reader.readObject().getAsArray());
+            }
+
+            try (JSONReader reader = new JSONReader(new ByteArrayInputStream(large.getBytes(StandardCharsets.UTF_8)))) {
+                assertEquals(array, reader.readObject().getAsArray());
+            }
+        }
+
+        System.out.println("Success: All tests completed");
+    }
+
+    /**
+     * Test JSON file reading from path.
+     */
+    @Test
+    public void testJSONReaderPath() throws Exception {
+        System.out.println("--[[ JSON Reader from Path ]]--");
+        Path path = Paths.get(getClass().getResource("personInfo.json").toURI());
+
+        try (JSONReader reader = JSONReader.open(path)) {
+            assertEquals(createPersonInformation(), reader.readObject().getAsObject());
+            assertNull(reader.readObject());
+        }
+
+        final int SIZE = 100000;
+        JSONArray array = new JSONArray();
+        path = path.resolveSibling("mappedNumberArray.json");
+
+        for (int i = 0; i < SIZE; i++) {
+            array.addNumber((long) i);
+        }
+
+        try (JSONWriter writer = new JSONWriter(new FileWriter(path.toFile()))) {
+            writer.writeArray(array);
+        }
+
+        try (JSONReader reader = JSONReader.open(path)) {
+            assertEquals(array, reader.readObject().getAsArray());
+            assertNull(reader.readObject());
+        }
+
+        System.out.println("Success: All tests completed");
+    }
+
     /**
      * Test JSON file writing.
      */
@@ -157,4 +260,110 @@ public class JSONFileTest extends Assertions {
 
         System.out.println("Success: All tests completed");
     }
+
+    /**
+     * Test JSON file writing as UTF-8 through channel.
+     */
+    @Test
+    public void testJSONWriterChannel() throws Exception {
+        System.out.println("--[[ JSON Writer to Channel ]]--");
+        Path path = Paths.get(getClass().getResource("").toURI()).resolve("savedChannel.json");
+        JSONArray array = new JSONArray();
+
+        for (int i = 0; i < 20000; i++) {
+            array.addString(i + " ÄÅ😂✓");
+        }
+
+        JSONType value = JSONType.createArray(array);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (JSONWriter writer = new JSONWriter(output)) {
+            writer.write(value);
+        }
+
+        assertArrayEquals(value.toString().getBytes(StandardCharsets.UTF_8), output.toByteArray());
+
+        try (JSONWriter writer = JSONWriter.open(path)) {
+            writer.write(value);
+        }
+
+        try (JSONReader reader = JSONReader.open(path)) {
+            assertEquals(value, reader.readObject());
+        }
+
+        System.out.println("Success: All tests completed");
+    }
+
+    /**
+     * Test newline-delimited JSON record writing and reading.
+     */
+    @Test
+    public void testJSONRecords() throws Exception {
+        System.out.println("--[[ JSON Records ]]--");
+        Path path = Paths.get(getClass().getResource("").toURI()).resolve("savedRecords.json");
+        JSONObject person = createPersonInformation();
+        person.putString("note", "Multi\nline");
+
+        try (JSONWriter writer = new JSONWriter(new FileWriter(path.toFile()))) {
+            writer.writeRecord(JSONType.createObject(person));
+            writer.writeRecord(JSONType.createNumber(1L));
+        }
+
+        try (JSONWriter writer = new JSONWriter(new FileWriter(path.toFile(), true))) {
+            writer.writeRecords(List.of(JSONType.createNull(), JSONType.createString("end")));
+        }
+
+        List<JSONType> records;
+
+        try (JSONReader reader = JSONReader.open(path)) {
+            records = reader.stream().collect(Collectors.toList());
+        }
+
+        assertEquals(4, records.size());
+        assertEquals(person, records.get(0).getAsObject());
+        assertEquals(Long.valueOf(1L), records.get(1).getAsNumber());
+        assertTrue(records.get(2).isNull());
+        assertEquals("end", records.get(3).getAsString());
+
+        String stream = "{'a': 1}{'a': 2}\n\n[3] // record\n'4' 5\n";
+        List<String> expected = List.of("{\"a\":1}", "{\"a\":2}", "[3]", "\"4\"", "5");
+
+        try (JSONReader reader = new JSONReader(new StringReader(stream))) {
+            assertEquals(expected, reader.stream().map(JSONType::toString).collect(Collectors.toList()));
+        }
+
+        try (JSONReader reader = new JSONReader(ByteBuffer.wrap(stream.getBytes(StandardCharsets.UTF_8)))) {
+            Iterator<JSONType> iterator = reader.iterator();
+
+            for (String value : expected) {
+                assertTrue(iterator.hasNext());
+                assertEquals(value, iterator.next().toString());
+            }
+
+            assertFalse(iterator.hasNext());
+        }
+
+        try (JSONReader reader = new JSONReader(ByteBuffer.wrap("[1] ]".getBytes(StandardCharsets.UTF_8)))) {
+            assertEquals("[1]", reader.readNext().toString());
+            assertThrows(JSONException.class, reader::readNext);
+        }
+
+        byte[] marked = "\uFEFF[1]\n[2]".getBytes(StandardCharsets.UTF_8);
+
+        try (JSONReader reader = new JSONReader(new ByteArrayInputStream(marked))) {
+            assertEquals("[1]", reader.readNext().toString());
+            assertEquals("[2]", reader.readNext().toString());
+            assertNull(reader.readNext());
+        }
+
+        try (JSONReader reader = new JSONReader(new ByteArrayInputStream("{'a': 1}\n2".getBytes(StandardCharsets.UTF_16LE)))) {
+            assertEquals(List.of("{\"a\":1}", "2"), reader.stream().map(JSONType::toString).collect(Collectors.toList()));
+        }
+
+        JSONTokenizer tokenizer = new JSONTokenizer("[[1, }\n[2]");
+        assertThrows(JSONException.class, tokenizer::parseNext);
+        assertEquals("[2]", tokenizer.parseNext().toString());
+
+        System.out.println("Success: All tests completed");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+import org.junit.jupiter.api.*;
+
+import fi.tamk.tiko.ohjelmointi.json.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests path based selection.
+ *
+ * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+ * @version 2018.1101
+ * @since   11
+ */
+public class JSONPathTest extends Assertions {
+
+    /**
+     * Defines shopping list similar to saved lists.
+     */
+    private static final String LIST = "[{'fi.tamk.tiko.ohjelmointi.gui.Item': {'itemName': 'milk', 'itemAmount': 2}},"
+        + " {'fi.tamk.tiko.ohjelmointi.gui.Item': {'itemName': 'bread', 'itemAmount': 1, 'extra': [[], {}]}}]";
+
+    /**
+     * Tests path selection.
+     */
+    @Test
+    public void testJSONPathSelect() throws Exception {
+        System.out.println("--[[ Path: Select ]]--");
+
+        List<JSONType> names = List.of(JSONType.createString("milk"), JSONType.createString("bread"));
+
+        assertEquals(names, JSONPath.compile("$[*].*.itemName").select(LIST));
+        assertEquals(names, JSONPath.compile("$.*['fi.tamk.tiko.ohjelmointi.gui.Item'][\"itemName\"]").select(LIST));
+        assertEquals(List.of(JSONType.createNumber(1L)), JSONPath.compile("$[1].*.itemAmount").select(LIST));
+        assertEquals(List.of(new JSONTokenizer(LIST).parse()), JSONPath.compile("$").select(LIST));
+        assertEquals(new JSONTokenizer("[[], {}]").parse(), JSONPath.compile("$[*].*.extra").select(LIST).get(0));
+        assertTrue(JSONPath.compile("$[2]").select(LIST).isEmpty());
+        assertTrue(JSONPath.compile("$.itemName").select(LIST).isEmpty());
+
+        List<JSONType> amounts = new ArrayList<>();
+
+        try (JSONStreamReader reader = new JSONStreamReader(new StringReader(LIST + LIST))) {
+            reader.setSequence(true);
+            JSONPath.compile("$[*].*.itemAmount").select(reader, amounts::add);
+        }
+
+        assertEquals(4, amounts.size());
+        assertThrows(JSONException.class, () -> JSONPath.compile("$").select(LIST + LIST));
+
+        final String[] ERROR_VALUES = {"itemName", "$.", "$[x]", "$[1", "$..a", "$a"};
+
+        for (String value : ERROR_VALUES) {
+            assertThrows(IllegalArgumentException.class, () -> JSONPath.compile(value));
+        }
+
+        assertThrows(JSONException.class, () -> JSONPath.compile("$[*].a").select("[{'a': 1}, {'b' 2}]"));
+
+        System.out.println("Success: All tests completed");
+    }
+}
\ No newline at end of file
@@ -2,6 +2,18 @@ import org.junit.jupiter.api.*;
 
 import fi.tamk.tiko.ohjelmointi.json.*;
 
+import java.io.StringWriter;
+
+import java.lang.reflect.Field;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Tests single JSON units.
  *
@@ -39,6 +51,15 @@ public class JSONSingleUnitTest extends Assertions {
             assertThrows(JSONException.class, () -> tokenizer.parse());
         }
 
+        final String[] LINE_VALUES = {"[\r\n1,\r2,\n3 4]", "/*\r\n*/\r[1,\n2 3]"};
+
+        for (String value : LINE_VALUES) {
+            tokenizer = new JSONTokenizer(value);
+            JSONException exception = assertThrows(JSONException.class, () -> tokenizer.parse());
+
+            assertTrue(exception.getMessage().endsWith("at line: 4, 3"), exception.getMessage());
+        }
+
         System.out.println("Success: All tests completed");
     }
 
@@ -81,6 +102,93 @@ public class JSONSingleUnitTest extends Assertions {
         System.out.println("Success: All tests completed");
     }
 
+    /**
+     * Tests for deeply nested JSON data.
+     */
+    @Test
+    public void testJSONNestingUnit() {
+        System.out.println("--[[ Single Unit: Nesting ]]--");
+
+        final int DEPTH = 100000;
+        StringBuilder value = new StringBuilder();
+
+        for (int i = 0; i < DEPTH; i++) {
+            value.append(i % 2 == 0 ? "[" : "{'key':");
+        }
+
+        value.append("null");
+
+        for (int i = DEPTH - 1; i >= 0; i--) {
+            value.append(i % 2 == 0 ? "]" : "}");
+        }
+
+        tokenizer = new JSONTokenizer(value.toString());
+        JSONType result = tokenizer.parse();
+
+        for (int i = 0; i < DEPTH; i++) {
+            result = i % 2 == 0 ? result.getAsArray().get(0) : result.getAsObject().get("key");
+        }
+
+        assertTrue(result.isNull());
+        assertNull(tokenizer.parse());
+
+        final String[] ERROR_VALUES = {"[1,]", "[1 2]", "{'a':1,}", "{'a' 1}", "[[[[", "[{]}"};
+
+        for (String error : ERROR_VALUES) {
+            tokenizer = new JSONTokenizer(error);
+
+            assertThrows(JSONException.class, () -> tokenizer.parse());
+        }
+
+        System.out.println("Success: All tests completed");
+    }
+
+    /**
+     * Tests for parallel parsing of large arrays.
+     * @throws Exception Exception is thrown if parent field is unaccessible.
+     */
+    @Test
+    public void testJSONParallelUnit() throws Exception {
+        System.out.println("--[[ Single Unit: Parallel ]]--");
+
+        final int SIZE = 50000;
+        StringBuilder value = new StringBuilder("[");
+
+        for (int i = 0; i < SIZE; i++) {
+            value.append(i > 0 ? ", // ]\r\n" : "").append("{'item': \"[,]\\\"\", 'n': [").append(i).append("]}");
+        }
+
+        String json = value.append("\n]").toString();
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            JSONType expected = new JSONTokenizer(json).parse();
+
+            assertEquals(SIZE, expected.getAsArray().size());
+            JSONArray parsed = new JSONTokenizer(json).parse(pool).getAsArray();
+            Field parents = JSONObject.class.getDeclaredField("parents");
+            parents.setAccessible(true);
+
+            assertEquals(expected.getAsArray(), parsed);
+            assertSame(parsed, parents.get(parsed.get(SIZE - 1).getAsObject()));
+            assertEquals(expected, new JSONTokenizer(json.getBytes(StandardCharsets.UTF_8)).parse(pool));
+
+            final String[] ERROR_VALUES = {
+                json.replace("[49999]", "[49999,]"), json.replace("{'item'", "{'item' 'x'"), json + " 1", json.replace("\n]", "")
+            };
+
+            for (String error : ERROR_VALUES) {
+                JSONException exception = assertThrows(JSONException.class, () -> new JSONTokenizer(error).parse());
+
+                assertEquals(exception.getMessage(), assertThrows(JSONException.class, () -> new JSONTokenizer(error).parse(pool)).getMessage());
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        System.out.println("Success: All tests completed");
+    }
+
     /**
      * Tests for JSON object.
      */
@@ -127,8 +235,8 @@ public class JSONSingleUnitTest extends Assertions {
     public void testJSONStringUnit() {
         System.out.println("--[[ Single Unit: String ]]--");
 
-        final String[] VALID_VALUES = {"\\\\", "_\\u2E3A", "\\f\\t", "😂ÄäåÅöÖòóáàÁÀ¨~#[]{}:,\\u2713", "\\\'\\\"(o^o)\\\"\\\'"};
-        final String[] RESULTS = {"\\", "_\u2E3A", "\f\t", "😂ÄäåÅöÖòóáàÁÀ¨~#[]{}:,✓", "\'\"(o^o)\"\'"};
+        final String[] VALID_VALUES = {"\\\\", "_\\u2E3A", "\\f\\t", "😂ÄäåÅöÖòóáàÁÀ¨~#[]{}:,\\u2713", "\\\'\\\"(o^o)\\\"\\\'", "\\uD83D\\ude02", "no escapes"};
+        final String[] RESULTS = {"\\", "_\u2E3A", "\f\t", "😂ÄäåÅöÖòóáàÁÀ¨~#[]{}:,✓", "\'\"(o^o)\"\'", "😂", "no escapes"};
 
         for (int i = 0; i < VALID_VALUES.length; i++) {
             JSONType string = JSONType.createString(RESULTS[i]);
@@ -151,6 +259,93 @@ public class JSONSingleUnitTest extends Assertions {
             assertThrows(JSONException.class, () -> tokenizer.parse());
         }
 
+        assertEquals("\"a\\u0000b\\u001f\\n\\\"'\"", JSONTokenizer.writeString("a\u0000b\u001f\n\"'"));
+        assertEquals("'\\\"\\''", JSONTokenizer.writeSingleQuoteString("\"'"));
+
+        for (String value : RESULTS) {
+            String control = value + "\u0001\u007f";
+
+            assertEquals(JSONType.createString(control), new JSONTokenizer(JSONTokenizer.writeString(control)).parse());
+            assertEquals(JSONType.createString(control), new JSONTokenizer(JSONTokenizer.writeSingleQuoteString(control)).parse());
+        }
+
+        System.out.println("Success: All tests completed");
+    }
+
+    /**
+     * Tests for UTF-8 encoded JSON data.
+     */
+    @Test
+    public void testJSONByteUnit() {
+        System.out.println("--[[ Single Unit: UTF-8 Bytes ]]--");
+
+        final String[] VALID_VALUES = {
+            "\"😂ÄäåÅöÖòóáàÁÀ¨~#[]{}:,\\u2713\"", "['ä', {'ö': \"\\u00e5\"}, -3.5e2, null]",
+            "{\r\n'key' : /* Å\r\n */ 'Ö' // ä\n}", "\"_\\u2E3A\\t\""
+        };
+
+        for (String value : VALID_VALUES) {
+            JSONType expected = new JSONTokenizer(value).parse();
+            tokenizer = new JSONTokenizer(value.getBytes(StandardCharsets.UTF_8));
+
+            assertEquals(expected, tokenizer.parse());
+            assertNull(tokenizer.parse());
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(value.length() * 4);
+            buffer.put(value.getBytes(StandardCharsets.UTF_8)).flip();
+            tokenizer = new JSONTokenizer(buffer);
+
+            assertEquals(expected, tokenizer.parse());
+            assertNull(tokenizer.parse());
+
+            buffer.clear();
+            buffer.put((byte) 'x').put(value.getBytes(StandardCharsets.UTF_8)).flip().position(1);
+            tokenizer = new JSONTokenizer(buffer);
+
+            assertEquals(expected, tokenizer.parse());
+            assertNull(tokenizer.parse());
+        }
+
+        final String[] ERROR_VALUES = {"'ä", "['ö' 'å']", "{'ä'}", "\"\\uÄÄ\""};
+
+        for (String value : ERROR_VALUES) {
+            tokenizer = new JSONTokenizer(value.getBytes(StandardCharsets.UTF_8));
+
+            assertThrows(JSONException.class, () -> tokenizer.parse());
+        }
+
+        System.out.println("Success: All tests completed");
+    }
+
+    /**
+     * Tests for shared symbol table.
+     */
+    @Test
+    public void testJSONSymbolTable() {
+        System.out.println("--[[ Single Unit: Symbol Table ]]--");
+
+        final String VALUE = "[{'itemName': 'milk', 'ä': 'ö'}, {\"itemName\": \"milk\", 'ä': 'ö'}]";
+        JSONSymbolTable symbols = new JSONSymbolTable(2);
+
+        tokenizer = new JSONTokenizer(VALUE);
+        tokenizer.setSymbolTable(symbols);
+        JSONArray first = tokenizer.parse().getAsArray();
+
+        tokenizer = new JSONTokenizer(VALUE.getBytes(StandardCharsets.UTF_8));
+        tokenizer.setSymbolTable(symbols);
+        JSONArray second = tokenizer.parse().getAsArray();
+
+        assertEquals(new JSONTokenizer(VALUE).parse().getAsArray(), second);
+        assertEquals(2, symbols.size());
+
+        for (JSONType item : second) {
+            String key = item.getAsObject().keySet().stream().filter(name -> name.equals("itemName")).findFirst().get();
+
+            assertSame(symbols.intern("itemName"), key);
+            assertSame(symbols.intern("milk"), item.getAsObject().get(key).getAsString());
+            assertSame(first.get(0).getAsObject().get("itemName").getAsString(), item.getAsObject().get(key).getAsString());
+        }
+
         System.out.println("Success: All tests completed");
     }
 
@@ -235,6 +430,85 @@ public class JSONSingleUnitTest extends Assertions {
             assertThrows(JSONException.class, () -> tokenizer.parse());
         }
 
+        final double[] WRITTEN_VALUES = {0.1, -2.5, 1e23, 5e-324, 1e-3, 1.0E7, Double.MAX_VALUE, -0.0};
+        final String[] WRITTEN_RESULTS = {"0.1", "-2.5", "1.0E23", "4.9E-324", "0.001", "1.0E7", "1.7976931348623157E308", "-0.0"};
+
+        for (int i = 0; i < WRITTEN_VALUES.length; i++) {
+            String written = JSONTokenizer.writeDecimal(WRITTEN_VALUES[i]);
+
+            assertEquals(WRITTEN_RESULTS[i], written);
+            assertEquals(JSONType.createDecimal(WRITTEN_VALUES[i]), new JSONTokenizer(written).parse());
+        }
+
+        JSONArray array = new JSONArray();
+        array.addDecimal(Double.NaN);
+        array.addDecimal(Double.NEGATIVE_INFINITY);
+        array.addNumber(Long.MIN_VALUE);
+
+        assertEquals("[null,null,-9223372036854775808]", JSONType.createArray(array).toString());
+
+        StringWriter output = new StringWriter();
+
+        try (JSONWriter writer = new JSONWriter(output)) {
+            writer.setNonFinite(JSONNonFinite.STRING);
+            writer.writeArray(array);
+            writer.setNonFinite(JSONNonFinite.ERROR);
+            assertThrows(JSONException.class, () -> writer.writeArray(array));
+        } catch (Exception e) {
+            fail("Cannot serialize to writer");
+        }
+
+        assertEquals("[\"NaN\",\"-Infinity\",-9223372036854775808]", output.toString());
+
+        System.out.println("Success: All tests completed");
+    }
+
+    /**
+     * Tests for JSON number limits and decimal rounding.
+     */
+    @Test
+    public void testJSONNumberPrecision() {
+        System.out.println("--[[ Single Unit: Number Precision ]]--");
+
+        final String[] NUMBER_VALUES = {"9223372036854775807", "-9223372036854775808", "+0", "-1"};
+
+        for (String value : NUMBER_VALUES) {
+            tokenizer = new JSONTokenizer(value);
+
+            assertEquals(JSONType.createNumber(Long.parseLong(value)), tokenizer.parse());
+        }
+
+        final String[] DECIMAL_VALUES = {
+            "9223372036854775808", "-9223372036854775809", "1.", "4.9e-324", "2.4703282292062328e-324",
+            "1.7976931348623157e308", "1.7976931348623159e308", "2.2250738585072011e-308", "1e-400",
+            "9007199254740993.0", "0.1000000000000000055511151231257827021181583404541015625", "-0.0",
+            "123456789012345678901234567890e-10", "7.2057594037927933e16", "1e23", "8.41E21"
+        };
+
+        for (String value : DECIMAL_VALUES) {
+            tokenizer = new JSONTokenizer(value);
+
+            assertEquals(JSONType.createDecimal(Double.parseDouble(value)), tokenizer.parse());
+        }
+
+        java.util.Random random = new java.util.Random(2018);
+
+        for (int i = 0; i < 20000; i++) {
+            String value = String.format("%d.%de%d", random.nextInt(1000), Math.abs(random.nextLong()), random.nextInt(700) - 350);
+
+            if (i % 2 == 0) {
+                value = Double.toString(Double.longBitsToDouble(random.nextLong() & Long.MAX_VALUE));
+            }
+
+            if (value.contains("N") || value.contains("I")) {
+                continue;
+            }
+
+            tokenizer = new JSONTokenizer(value);
+
+            assertEquals(JSONType.createDecimal(Double.parseDouble(value)), tokenizer.parse(), value);
+        }
+
         System.out.println("Success: All tests completed");
     }
 
@@ -265,4 +539,223 @@ public class JSONSingleUnitTest extends Assertions {
 
         System.out.println("Success: All tests completed");
     }
+
+    /**
+     * Tests for primitive accessors of JSON values.
+     */
+    @Test
+    public void testJSONPrimitiveUnit() {
+        System.out.println("--[[ Single Unit: Primitives ]]--");
+
+        JSONArray array = new JSONTokenizer("[4242, -0.5, true, 'text', null]").parse().getAsArray();
+
+        assertEquals(4242L, array.get(0).getLong());
+        assertEquals(-0.5, array.get(1).getDouble());
+        assertTrue(array.get(2).getBoolean());
+        assertEquals(JSONType.create(4242L), array.get(0));
+        assertEquals(array.get(1), JSONType.create(-0.5));
+        assertEquals(JSONType.create(null), array.get(4));
+        assertEquals(Long.valueOf(4242L), array.get(0).get());
+        assertEquals(JSONType.createNull(), JSONType.createNumber((Long) null));
+
+        assertThrows(ClassCastException.class, () -> array.get(0).getDouble());
+        assertThrows(ClassCastException.class, () -> array.get(3).getBoolean());
+
+        JSONType value = array.get(0);
+        JSONType generic = JSONType.create(4242L);
+
+        assertThrows(IllegalArgumentException.class, () -> value.set("text"));
+        assertThrows(IllegalArgumentException.class, () -> generic.set(new Object()));
+
+        generic.set("text");
+        assertEquals(JSONTypes.STRING, generic.getType());
+        assertEquals(array.get(3), generic);
+        assertThrows(ClassCastException.class, () -> generic.getLong());
+
+        value.set(7L);
+        assertEquals(7L, value.getLong());
+        assertEquals("[7,-0.5,true,\"text\",null]", JSONType.createArray(array).toString());
+
+        System.out.println("Success: All tests completed");
+    }
+
+    /**
+     * Tests member order and lookup of JSON objects.
+     */
+    @Test
+    public void testJSONObjectOrder() {
+        System.out.println("--[[ Single Unit: Object Order ]]--");
+
+        final int SIZE = 100;
+        JSONObject object = new JSONObject();
+        Map<String, JSONType> expected = new HashMap<>();
+
+        for (int i = SIZE - 1; i >= 0; i--) {
+            object.putNumber("key" + i, (long) i);
+            expected.put("key" + i, JSONType.createNumber(i));
+        }
+
+        assertEquals(expected, object);
+        assertEquals(expected.hashCode(), object.hashCode());
+        assertEquals("key99", object.keySet().iterator().next());
+        assertEquals(JSONType.createNumber(50L), object.put("key50", JSONType.createNull()));
+        assertTrue(object.get("key50").isNull());
+        assertNull(object.get("missing"));
+
+        object.keySet().removeIf(key -> !key.endsWith("0"));
+        assertEquals(10, object.size());
+        assertEquals("[key90, key80, key70, key60, key50, key40, key30, key20, key10, key0]", object.keySet().toString());
+        assertEquals(JSONType.createNumber(10L), object.remove("key10"));
+        assertFalse(object.containsKey("key10"));
+        assertTrue(object.containsKey("key0"));
+
+        JSONObject cloned = (JSONObject) object.clone();
+        cloned.putNull("added");
+        assertEquals(9, object.size());
+        assertEquals(object.get("key90"), cloned.get("key90"));
+        assertEquals("key90", cloned.keySet().iterator().next());
+
+        final String VALUE = "{'z': 1, 'a': 2, 'm': {'y': 3, 'b': 4}}";
+        assertEquals("{\"z\":1,\"a\":2,\"m\":{\"y\":3,\"b\":4}}", new JSONTokenizer(VALUE).parse().toString());
+
+        System.out.println("Success: All tests completed");
+    }
+
+    /**
+     * Tests primitive storage of JSON arrays.
+     */
+    @Test
+    public void testJSONArrayStorage() {
+        System.out.println("--[[ Single Unit: Array Storage ]]--");
+
+        JSONArray numbers = new JSONTokenizer("[1, 2, 3, -4]").parse().getAsArray();
+        JSONArray decimals = new JSONTokenizer("[0.5, -1.5e2]").parse().getAsArray();
+
+        assertArrayEquals(new long[] { 1, 2, 3, -4 }, numbers.toLongArray());
+        assertEquals(2L, numbers.longStream().filter(value -> value > 1).count());
+        assertEquals(-149.5, decimals.doubleStream().sum());
+        assertEquals(3L, numbers.getLong(2));
+        assertEquals(JSONType.createNumber(3L), numbers.get(2));
+        assertThrows(ClassCastException.class, () -> decimals.toLongArray());
+        assertThrows(IndexOutOfBoundsException.class, () -> numbers.getLong(4));
+
+        JSONArray copy = new JSONArray();
+        copy.addAll(numbers);
+        copy.addAll(numbers);
+        assertEquals(8, copy.size());
+        assertEquals(numbers, copy.subList(4, 8));
+
+        JSONArray large = new JSONTokenizer("[4096, 8192]").parse().getAsArray();
+        JSONArray cloned = (JSONArray) large.clone();
+        JSONType element = large.get(1);
+        JSONType decimal = decimals.get(0);
+
+        element.set(16384L);
+        decimal.set(0.25);
+        assertEquals(16384L, large.getLong(1));
+        assertEquals(0.25, decimals.getDouble(0));
+        assertEquals(8192L, cloned.getLong(1));
+
+        large.addNumber(1L);
+        assertThrows(ConcurrentModificationException.class, () -> element.set(1L));
+        assertThrows(IllegalArgumentException.class, () -> decimal.set(1L));
+
+        JSONType added = JSONType.createNumber(5000L);
+        large.add(added);
+        added.set(6000L);
+        assertEquals(6000L, large.getLong(3));
+
+        numbers.add(2, JSONType.createString("text"));
+        numbers.remove(0);
+        numbers.set(0, JSONType.createDecimal(0.5));
+        assertEquals("[0.5,\"text\",3,-4]", JSONType.createArray(numbers).toString());
+        assertEquals(JSONTypes.NUMBER, numbers.get(2).getType());
+        assertThrows(ClassCastException.class, () -> numbers.toLongArray());
+
+        copy.addNumber(5L);
+        copy.addDecimal(2.5);
+        copy.removeIf(value -> value.getType() == JSONTypes.NUMBER && value.getLong() < 3);
+        assertEquals("[3,3,5,2.5]", JSONType.createArray(copy).toString());
+
+        System.out.println("Success: All tests completed");
+    }
+
+    /**
+     * Tests shared immutable JSON values.
+     */
+    @Test
+    public void testJSONConstantUnit() {
+        System.out.println("--[[ Single Unit: Constants ]]--");
+
+        JSONArray array = new JSONTokenizer("[null, TRUE, false, 5, -128, 1023, 1024]").parse().getAsArray();
+
+        assertSame(JSONType.NULL, array.get(0));
+        assertSame(JSONType.TRUE, array.get(1));
+        assertSame(JSONType.FALSE, JSONType.createBoolean(Boolean.FALSE));
+        assertSame(JSONType.createNumber(5L), array.get(3));
+        assertSame(JSONType.createNumber(-128L), array.get(4));
+        assertSame(JSONType.createNumber(1023L), array.get(5));
+        assertNotSame(JSONType.createNumber(1024L), array.get(6));
+
+        for (JSONType value : array.subList(0, 6)) {
+            assertTrue(value.isImmutable());
+            assertThrows(UnsupportedOperationException.class, () -> value.set("text"));
+        }
+
+        JSONType value = array.get(6);
+
+        assertFalse(value.isImmutable());
+        assertFalse(JSONType.create(null).isImmutable());
+        assertEquals(JSONType.NULL, JSONType.create(null));
+        assertEquals(JSONType.create(true), JSONType.TRUE);
+        assertThrows(IllegalArgumentException.class, () -> value.set(false));
+
+        value.set(1025L);
+        assertEquals(JSONType.createNumber(1025L), array.get(6));
+
+        System.out.println("Success: All tests completed");
+    }
+
+    /**
+     * Tests serializing of deep and large values.
+     */
+    @Test
+    public void testJSONSerializerUnit() {
+        System.out.println("--[[ Single Unit: Serializer ]]--");
+
+        JSONType deep = JSONType.createNumber(1L);
+
+        for (int i = 0; i < 100000; i++) {
+            JSONArray array = new JSONArray();
+            array.add(deep);
+            deep = JSONType.createArray(array);
+        }
+
+        String text = deep.toString();
+        assertEquals(200001, text.length());
+        assertEquals('1', text.charAt(100000));
+
+        JSONArray records = new JSONArray();
+
+        for (int i = 0; i < 5000; i++) {
+            JSONObject record = new JSONObject();
+            record.put("id", JSONType.createNumber((long) i));
+            record.put("name", JSONType.createString("item \"" + i + "\""));
+            records.add(JSONType.createObject(record));
+        }
+
+        JSONType value = JSONType.createArray(records);
+        StringWriter output = new StringWriter();
+
+        try (JSONWriter writer = new JSONWriter(output)) {
+            writer.write(value);
+        } catch (Exception e) {
+            fail("Cannot serialize to writer");
+        }
+
+        assertEquals(value.toString(), output.toString());
+        assertEquals(value, new JSONTokenizer(output.toString()).parse());
+
+        System.out.println("Success: All tests completed");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,262 @@
+import org.junit.jupiter.api.*;
+
+import fi.tamk.tiko.ohjelmointi.json.*;
+
+import java.io.StringReader;
+import java.io.InputStream;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests stream based reading.
+ *
+ * @author  Joonas Lauhala {@literal <joonas.lauhala@cs.tamk.fi>}
+ * @version 2018.1101
+ * @since   11
+ */
+public class JSONStreamTest extends Assertions {
+
+    /**
+     * Tests token stream.
+     */
+    @Test
+    public void testJSONStreamReaderTokens() throws Exception {
+        System.out.println("--[[ Stream Reader: Tokens ]]--");
+        final String JSON = "{'key': [1, 2.5, true, null, \"value\"], /* comment */ 'empty': {}}";
+
+        final JSONTokens[] TOKENS = {
+            JSONTokens.START_OBJECT, JSONTokens.KEY, JSONTokens.START_ARRAY, JSONTokens.NUMBER,
+            JSONTokens.DECIMAL, JSONTokens.BOOLEAN, JSONTokens.NULL, JSONTokens.STRING,
+            JSONTokens.END_ARRAY, JSONTokens.KEY, JSONTokens.START_OBJECT, JSONTokens.END_OBJECT,
+            JSONTokens.END_OBJECT
+        };
+
+        try (JSONStreamReader reader = new JSONStreamReader(new StringReader(JSON), 16)) {
+            for (JSONTokens token : TOKENS) {
+                assertEquals(token, reader.nextToken());
+            }
+
+            assertNull(reader.nextToken());
+        }
+
+        try (JSONStreamReader reader = new JSONStreamReader(new StringReader(JSON))) {
+            assertEquals(JSONTokens.START_OBJECT, reader.nextToken());
+            assertEquals(JSONTokens.KEY, reader.nextToken());
+            assertEquals("key", reader.getString());
+            assertEquals(JSONTokens.START_ARRAY, reader.nextToken());
+            assertEquals(JSONTokens.NUMBER, reader.nextToken());
+            assertEquals(1L, reader.getLong());
+            assertEquals(JSONTokens.DECIMAL, reader.nextToken());
+            assertEquals(2.5, reader.getDouble());
+            assertEquals(JSONTokens.BOOLEAN, reader.nextToken());
+            assertTrue(reader.getBoolean());
+        }
+
+        try (JSONStreamReader reader = new JSONStreamReader(new StringReader(JSON))) {
+            assertEquals(JSONTokens.START_OBJECT, reader.nextToken());
+            assertEquals(JSONTokens.KEY, reader.nextToken());
+
+            reader.skipValue();
+
+            assertEquals(JSONTokens.END_ARRAY, reader.getToken());
+            assertEquals(JSONTokens.KEY, reader.nextToken());
+            assertEquals("empty", reader.getString());
+        }
+
+        System.out.println("Success: All tests completed");
+    }
+
+    /**
+     * Tests value reading against tokenizer.
+     */
+    @Test
+    public void testJSONStreamReaderValues() throws Exception {
+        System.out.println("--[[ Stream Reader: Values ]]--");
+        InputStream stream = getClass().getResourceAsStream("personInfo.json");
+        JSONType expected = null;
+
+        try (JSONReader reader = new JSONReader(getClass().getResourceAsStream("personInfo.json"))) {
+            expected = reader.readObject();
+        }
+
+        try (JSONStreamReader reader = new JSONStreamReader(stream)) {
+            assertEquals(expected, reader.readValue());
+            assertNull(reader.readValue());
+        }
+
+        try (JSONStreamReader reader = new JSONStreamReader(new StringReader("[1, [2], 3]"))) {
+            assertEquals(JSONTokens.START_ARRAY, reader.nextToken());
+            assertEquals(JSONType.createNumber(1L), reader.readValue());
+            assertEquals(JSONTokens.START_ARRAY, reader.nextToken());
+            reader.skipValue();
+            assertEquals(JSONType.createNumber(3L), reader.readValue());
+            assertNull(reader.readValue());
+            assertNull(reader.readValue());
+        }
+
+        System.out.println("Success: All tests completed");
+    }
+
+    /**
+     * Tests stream reader errors.
+     * @throws Exception Exception is thrown if input is unaccessible.
+     */
+    @Test
+    public void testJSONStreamReaderErrors() throws Exception {
+        System.out.println("--[[ Stream Reader: Errors ]]--");
+
+        final String[] ERROR_VALUES = {
+            "[,]", "['key'}", "['key'", "[1 2]", "]", "{0: 'value'}", "{'key''value'}",
+            "{'key':}", "{", "'no\\x'", "\"\\u1F\"", "fals3", "/*", "1 2", "[] {}"
+        };
+
+        for (String value : ERROR_VALUES) {
+            assertThrows(JSONException.class, () -> {
+                try (JSONStreamReader reader = new JSONStreamReader(new StringReader(value), 16)) {
+                    while (reader.nextToken() != null);
+                }
+            });
+        }
+
+        for (int i = 0; i < 32; i++) {
+            String padding = " ".repeat(i);
+
+            assertThrows(JSONException.class, () -> {
+                try (JSONStreamReader reader = new JSONStreamReader(new StringReader("[" + padding + "/x]"), 16)) {
+                    while (reader.nextToken() != null);
+                }
+            });
+
+            try (JSONStreamReader reader = new JSONStreamReader(new StringReader("[" + padding + "/* / */ 1]"), 16)) {
+                assertEquals(new JSONTokenizer("[1]").parse(), reader.readValue());
+            }
+        }
+
+        System.out.println("Success: All tests completed");
+    }
+
+    /**
+     * Tests push parser with chunked input.
+     */
+    @Test
+    public void testJSONPushParser() {
+        System.out.println("--[[ Push Parser ]]--");
+        final String JSON = "{'key': [1, -2.5e3, TRUE, null, \"v\\u00e4l\\n\u00fc\u20ac\"], /* c */ 'empty': {}} # c\r\n[12345678901234]\n\"\ud83d\ude00\" 42";
+        final byte[] DATA = JSON.getBytes(StandardCharsets.UTF_8);
+
+        List<JSONType> expected = new ArrayList<>();
+        new JSONReader(ByteBuffer.wrap(DATA)).stream().forEach(expected::add);
+        assertEquals(4, expected.size());
+
+        for (int split = 0; split <= DATA.length; split++) {
+            List<JSONType> values = new ArrayList<>();
+            JSONPushParser parser = new JSONPushParser(values::add);
+
+            parser.feed(DATA, 0, split);
+            parser.feed(ByteBuffer.wrap(DATA, split, DATA.length - split));
+            parser.end();
+
+            assertEquals(expected, values);
+        }
+
+        List<JSONType> values = new ArrayList<>();
+        JSONPushParser parser = new JSONPushParser(values::add);
+
+        for (byte value : DATA) {
+            parser.feed(new byte[] { value });
+        }
+
+        assertFalse(parser.isComplete());
+        parser.end();
+        assertEquals(expected, values);
+
+        List<JSONType> elements = new ArrayList<>();
+        parser = new JSONPushParser(1, elements::add);
+        parser.feed("[{'a': 1}, [2, 3], 45".getBytes(StandardCharsets.UTF_8));
+        assertEquals(2, elements.size());
+        parser.feed("]".getBytes(StandardCharsets.UTF_8));
+        parser.end();
+        assertEquals("[{\"a\":1}, [2,3], 45]", elements.toString());
+
+        final String[] INVALID = { "[1, 2", "{'a' 1}", "'text", "[1 2]", "]", "/* c", "{'a': tru}" };
+
+        for (String stream : INVALID) {
+            JSONPushParser invalid = new JSONPushParser(value -> {});
+
+            assertThrows(JSONException.class, () -> {
+                invalid.feed(stream.getBytes(StandardCharsets.UTF_8));
+                invalid.end();
+            }, stream);
+        }
+
+        for (String stream : new String[] { "{'a': [1]}", "1", "'text'", "[1] 2" }) {
+            JSONPushParser invalid = new JSONPushParser(1, value -> {});
+            invalid.setRootType(JSONTypes.ARRAY);
+
+            assertThrows(JSONException.class, () -> {
+                invalid.feed(stream.getBytes(StandardCharsets.UTF_8));
+                invalid.end();
+            }, stream);
+        }
+
+        List<JSONType> recovered = new ArrayList<>();
+        JSONPushParser broken = new JSONPushParser(recovered::add);
+        JSONException failure = assertThrows(JSONException.class, () -> broken.feed("[1, }".getBytes(StandardCharsets.UTF_8)));
+
+        assertSame(failure, assertThrows(JSONException.class, () -> broken.feed(" [2] ".getBytes(StandardCharsets.UTF_8))));
+        assertSame(failure, assertThrows(JSONException.class, () -> broken.end()));
+
+        broken.reset();
+        broken.feed(" [2] ".getBytes(StandardCharsets.UTF_8));
+        broken.end();
+        assertEquals(List.of(new JSONTokenizer("[2]").parse()), recovered);
+
+        System.out.println("Success: All tests completed");
+    }
+
+    /**
+     * Tests event handler.
+     */
+    @Test
+    public void testJSONHandler() {
+        System.out.println("--[[ Tokenizer: Handler ]]--");
+
+        List<String> events = new ArrayList<>();
+        JSONHandler handler = new JSONHandler() {
+            public void startObject() { events.add("{"); }
+            public void key(String key) { events.add(key + ":"); }
+            public void endObject() { events.add("}"); }
+            public void startArray() { events.add("["); }
+            public void endArray() { events.add("]"); }
+            public void longValue(long value) { events.add("L" + value); }
+            public void doubleValue(double value) { events.add("D" + value); }
+            public void stringValue(String value) { events.add("S" + value); }
+            public void booleanValue(boolean value) { events.add("B" + value); }
+            public void nullValue() { events.add("N"); }
+        };
+
+        JSONTokenizer tokenizer = new JSONTokenizer("{'a': [1, -2.5, 'x\\ty', TRUE, null], \"b\": {}} // end");
+
+        assertTrue(tokenizer.parse(handler));
+        assertEquals(List.of("{", "a:", "[", "L1", "D-2.5", "Sx\ty", "Btrue", "N", "]", "b:", "{", "}", "}"), events);
+        assertFalse(tokenizer.parse(handler));
+
+        int[] count = new int[1];
+        JSONHandler counter = new JSONHandler() {
+            public void startObject() { count[0]++; }
+        };
+
+        tokenizer = new JSONTokenizer("[{'id': 1}, {'id': 2}]\n{'id': 3}".getBytes(StandardCharsets.UTF_8));
+
+        while (tokenizer.parseNext(counter));
+
+        assertEquals(3, count[0]);
+        assertThrows(JSONException.class, () -> new JSONTokenizer("[1, {]").parse(counter));
+
+        System.out.println("Success: All tests completed");
+    }
+}
\ No newline at end of file